@@ -0,0 +1,181 @@
+/**
+ *  File name: Benchmark.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * A single benchmark: an operation which is timed over and over. The operation
+ * is run in batches, and {@link #setUp()} is called before each batch, outside
+ * the timing, so operations which change the board can start each batch from 
+ * the same position.
+ * 
+ * As well as the time taken, the memory allocated by the operation is 
+ * measured, where the JVM can count the bytes allocated by a thread.
+ *
+ * @author littlewoo
+ */
+public abstract class Benchmark {
+	/** the name of the benchmark */
+	private final String name;
+	/** the number of operations timed between calls to setUp */
+	private final int batchSize;
+	/** the most time to spend in total, including setting up, as a multiple
+	 *  of the time to spend on the operations */
+	private static final int MAX_OVERHEAD = 10;
+	
+	/**
+	 * Make a new Benchmark.
+	 * 
+	 * @param name the name of the benchmark
+	 * @param batchSize the number of operations run between calls to 
+	 * 			{@link #setUp()}
+	 */
+	public Benchmark(String name, int batchSize) {
+		this.name = name;
+		this.batchSize = batchSize;
+	}
+	
+	/**
+	 * @return the name of the benchmark
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * Get ready for a batch of operations. Not timed.
+	 */
+	protected void setUp() {
+	}
+	
+	/**
+	 * Carry out the operation being measured once.
+	 */
+	protected abstract void run();
+	
+	/**
+	 * Run the benchmark for a while without measuring it, so that the JIT 
+	 * compiler has done its work, and then measure it.
+	 * 
+	 * @param warmUpMillis the time to spend warming up
+	 * @param measureMillis the time to spend measuring, not counting setting
+	 * 			up for each batch
+	 * @return the result
+	 */
+	public Result measure(long warmUpMillis, long measureMillis) {
+		runFor(warmUpMillis * 1000000L);
+		return runFor(measureMillis * 1000000L);
+	}
+	
+	/**
+	 * Run batches of operations until enough time has been spent on them, or
+	 * until {@link #MAX_OVERHEAD} times as long has been spent altogether.
+	 * 
+	 * @param nanos the time to spend running operations
+	 * @return the result
+	 */
+	private Result runFor(long nanos) {
+		ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+		com.sun.management.ThreadMXBean allocs = null;
+		if (mx instanceof com.sun.management.ThreadMXBean) {
+			allocs = (com.sun.management.ThreadMXBean) mx;
+			if (!allocs.isThreadAllocatedMemorySupported() || 
+				!allocs.isThreadAllocatedMemoryEnabled()) {
+				allocs = null;
+			}
+		}
+		long thread = Thread.currentThread().getId();
+		
+		long ops = 0;
+		long time = 0;
+		long bytes = 0;
+		long deadline = System.nanoTime() + nanos * MAX_OVERHEAD;
+		while (time < nanos && System.nanoTime() < deadline) {
+			setUp();
+			long startBytes = allocs == null ? 0 : 
+								allocs.getThreadAllocatedBytes(thread);
+			long start = System.nanoTime();
+			for (int i = 0; i < batchSize; i++) {
+				run();
+			}
+			time += System.nanoTime() - start;
+			if (allocs != null) {
+				bytes += allocs.getThreadAllocatedBytes(thread) - startBytes;
+			}
+			ops += batchSize;
+		}
+		return new Result(name, ops, time, allocs == null ? -1 : bytes);
+	}
+	
+	/**
+	 * The measurements from a run of a benchmark.
+	 */
+	public static class Result {
+		/** the name of the benchmark */
+		public final String name;
+		/** the number of operations run */
+		public final long ops;
+		/** the time taken by the operations, in nanoseconds */
+		public final long nanos;
+		/** the bytes allocated by the operations, or -1 if unknown */
+		public final long bytes;
+		
+		/**
+		 * Make a new Result.
+		 * 
+		 * @param name the name of the benchmark
+		 * @param ops the number of operations run
+		 * @param nanos the time taken by the operations, in nanoseconds
+		 * @param bytes the bytes allocated by the operations, or -1 if unknown
+		 */
+		public Result(String name, long ops, long nanos, long bytes) {
+			this.name = name;
+			this.ops = ops;
+			this.nanos = nanos;
+			this.bytes = bytes;
+		}
+		
+		/**
+		 * @return the number of operations a second
+		 */
+		public double getOpsPerSecond() {
+			return ops * 1e9 / nanos;
+		}
+		
+		/**
+		 * @return the bytes allocated by each operation, or -1 if unknown
+		 */
+		public double getBytesPerOp() {
+			return bytes < 0 ? -1 : (double) bytes / ops;
+		}
+		
+		/**
+		 * Express this result as a line of a table.
+		 */
+		public String toString() {
+			return String.format("%-44s %14.1f ops/s %12.1f ns/op %10.1f B/op",
+								 name, getOpsPerSecond(), 
+								 (double) nanos / ops, getBytesPerOp());
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ *  File name: Fixture.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game;
+
+import game.token.FireToken;
+import game.token.SmokeToken;
+import interfaces.WallProvider;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The positions the benchmarks are run from. Each one is a new headless game,
+ * with the walls, players and initial POI tokens placed, and then a given 
+ * proportion of the board covered with fire and smoke. The same fixture always
+ * gives the same position.
+ *
+ * @author littlewoo
+ */
+public enum Fixture {
+	/** a game which has just started */
+	EMPTY(0, 0),
+	/** a game part way through, with some fire and more smoke */
+	MID_GAME(0.15, 0.25),
+	/** a game about to be lost, with fire almost everywhere */
+	NEAR_LOSS(0.7, 0.2);
+	
+	/** the seed for the game and the threats */
+	private static final long SEED = 42;
+	/** the walls, read once for all the fixtures */
+	private static Walls walls;
+	
+	/** the proportion of squares with fire on them */
+	private final double fire;
+	/** the proportion of squares with smoke on them */
+	private final double smoke;
+	
+	private Fixture(double fire, double smoke) {
+		this.fire = fire;
+		this.smoke = smoke;
+	}
+	
+	/**
+	 * Make a new game in this position.
+	 * 
+	 * @return the game
+	 */
+	public Game create() {
+		Game game = Game.newHeadless(SEED, getPlayers(), getWalls());
+		Board board = game.getBoard();
+		Random rand = new Random(SEED);
+		for (int y = 0; y < board.getHeight(); y++) {
+			for (int x = 0; x < board.getWidth(); x++) {
+				double r = rand.nextDouble();
+				if (r < fire) {
+					board.addThreatToken(x, y, new FireToken());
+				} else if (r < fire + smoke) {
+					board.addThreatToken(x, y, new SmokeToken());
+				}
+			}
+		}
+		return game;
+	}
+	
+	/**
+	 * @return the players in the game
+	 */
+	private static List<PlayerInputData> getPlayers() {
+		List<PlayerInputData> players = new ArrayList<PlayerInputData>();
+		players.add(new PlayerInputData("Red", Color.RED));
+		players.add(new PlayerInputData("Blue", Color.BLUE));
+		players.add(new PlayerInputData("Green", Color.GREEN));
+		return players;
+	}
+	
+	/**
+	 * @return a provider of the walls, read from the board file the first time
+	 */
+	private static synchronized WallProvider getWalls() {
+		if (walls == null) {
+			walls = new WallCreator().getWalls();
+		}
+		return new WallProvider() {
+			@Override
+			public Walls getWalls() {
+				return walls;
+			}
+		};
+	}
+}
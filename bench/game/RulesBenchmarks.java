@@ -0,0 +1,241 @@
+/**
+ *  File name: RulesBenchmarks.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game;
+
+import game.action.ActionCollection;
+import game.token.PlayerToken;
+import interfaces.ActionView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks for the hot paths of the rules engine, run from each of the 
+ * {@link Fixture}s. Each benchmark prints the operations per second, the time 
+ * for each operation, and the bytes allocated by each operation.
+ * 
+ * Usage: <code>java game.RulesBenchmarks [warm up ms] [measure ms]</code>
+ *
+ * @author littlewoo
+ */
+public class RulesBenchmarks {
+	/** the number of operations between set ups, for operations which do not
+	 *  change the board */
+	private static final int READ_BATCH = 256;
+	
+	/**
+	 * A benchmark which runs on a game in one of the fixture positions. The
+	 * game is made before the first batch, and again before every batch if 
+	 * the operation changes the board.
+	 */
+	private static abstract class GameBenchmark extends Benchmark {
+		/** the position to run from */
+		private final Fixture fixture;
+		/** true if the game should be made again before each batch */
+		private final boolean reset;
+		
+		/** the game and board being run on */
+		protected Game game;
+		protected Board board;
+		/** the source of random squares */
+		protected final Random rand = new Random(0);
+		
+		/**
+		 * Make a new GameBenchmark.
+		 * 
+		 * @param name the name of the operation
+		 * @param fixture the position to run from
+		 * @param batchSize the number of operations run between set ups
+		 * @param reset true if the operation changes the board, so the game 
+		 * 			must be made again before each batch
+		 */
+		GameBenchmark(String name, Fixture fixture, int batchSize, 
+					  boolean reset) {
+			super(name + " [" + fixture + "]", batchSize);
+			this.fixture = fixture;
+			this.reset = reset;
+		}
+		
+		@Override
+		protected void setUp() {
+			if (reset || game == null) {
+				game = fixture.create();
+				board = game.getBoard();
+			}
+		}
+	}
+	
+	/**
+	 * Make the benchmarks to be run from a fixture.
+	 * 
+	 * @param f the fixture
+	 * @return the benchmarks
+	 */
+	private static List<Benchmark> getBenchmarks(final Fixture f) {
+		List<Benchmark> result = new ArrayList<Benchmark>();
+		result.add(new GameBenchmark("Board.advanceFire", f, 8, true) {
+			@Override
+			protected void run() {
+				board.advanceFire(1 + rand.nextInt(board.getWidth() - 2),
+								  1 + rand.nextInt(board.getHeight() - 2));
+			}
+		});
+		result.add(new GameBenchmark("Board.smokeIntoFire", f, 1, true) {
+			@Override
+			protected void run() {
+				board.smokeIntoFire();
+			}
+		});
+		result.add(new GameBenchmark("Board.removeFireFromEdges", f, 1, true) {
+			@Override
+			protected void run() {
+				board.removeFireFromEdges();
+			}
+		});
+		result.add(new GameBenchmark("Board.getPossibleMoves", f, 
+									 READ_BATCH, false) {
+			@Override
+			protected void run() {
+				PlayerToken t = game.getCurrentPlayer().getToken();
+				board.getPossibleMoves(t);
+			}
+		});
+		result.add(new GameBenchmark("Game.findActions", f, READ_BATCH, 
+									 false) {
+			@Override
+			protected void run() {
+				game.findActions(game.getCurrentPlayer());
+			}
+		});
+		result.add(new GameBenchmark("Game.findPathActions", f, READ_BATCH, 
+									 false) {
+			@Override
+			protected void run() {
+				game.findPathActions(game.getCurrentPlayer());
+			}
+		});
+		result.add(new GameBenchmark("Game.alertActionViews", f, 
+									 READ_BATCH, false) {
+			@Override
+			protected void setUp() {
+				if (game == null) {
+					super.setUp();
+					game.addActionView(new ActionView() {
+						@Override
+						public void displayActions(ActionCollection actions) {
+						}
+					});
+				}
+			}
+			
+			@Override
+			protected void run() {
+				game.alertActionViews();
+			}
+		});
+		result.add(new GameBenchmark("Board.choosePOISquare", f, 
+									 READ_BATCH, false) {
+			private final DiceRoller roller = new DiceRoller(0);
+			
+			@Override
+			protected void run() {
+				board.choosePOISquare(roller, false);
+			}
+		});
+		result.add(new GameBenchmark("POITokenManager.placeInitialTokens", f,
+									 1, true) {
+			private POITokenManager manager;
+			
+			@Override
+			protected void setUp() {
+				super.setUp();
+				manager = new POITokenManager(true, 10, 5, board, 
+											  new DiceRoller(0));
+			}
+			
+			@Override
+			protected void run() {
+				manager.placeInitialTokens(3);
+			}
+		});
+		return result;
+	}
+	
+	/**
+	 * Make the benchmarks which do not depend on the board.
+	 * 
+	 * @return the benchmarks
+	 */
+	private static List<Benchmark> getOtherBenchmarks() {
+		List<Benchmark> result = new ArrayList<Benchmark>();
+		result.add(new Benchmark("DiceRoller.shuffle [15 tokens]", 
+								 READ_BATCH) {
+			private final DiceRoller roller = new DiceRoller(0);
+			private final List<Integer> list = new ArrayList<Integer>();
+			
+			@Override
+			protected void setUp() {
+				if (list.isEmpty()) {
+					for (int i = 0; i < 15; i++) {
+						list.add(i);
+					}
+				}
+			}
+			
+			@Override
+			protected void run() {
+				roller.shuffle(list);
+			}
+		});
+		result.add(new Benchmark("POIDeck.shuffle [5000 tokens]", 16) {
+			private final DiceRoller roller = new DiceRoller(0);
+			private final POIDeck deck = new POIDeck(2000, 3000);
+			
+			@Override
+			protected void run() {
+				deck.shuffle(roller);
+			}
+		});
+		return result;
+	}
+	
+	/**
+	 * Run all the benchmarks, and print the results.
+	 * 
+	 * @param args optionally, the time to warm up each benchmark for, and the
+	 * 			time to measure it for, in milliseconds
+	 */
+	public static void main(String[] args) {
+		long warmUp = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+		long measure = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+		
+		List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+		for (Fixture f : Fixture.values()) {
+			benchmarks.addAll(getBenchmarks(f));
+		}
+		benchmarks.addAll(getOtherBenchmarks());
+		
+		for (Benchmark b : benchmarks) {
+			System.out.println(b.measure(warmUp, measure));
+		}
+	}
+}
@@ -0,0 +1,252 @@
+/**
+ *  File name: PaintBenchmarks.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ui;
+
+import game.Benchmark;
+import game.Fixture;
+import game.Game;
+import game.Walls;
+import game.token.FireToken;
+import game.token.POIQuestionMarkToken;
+import game.token.POIToken.POIFaceType;
+import game.token.PlayerToken;
+import game.token.SmokeToken;
+import game.token.TokenStackToken;
+import game.token.VictimPOIToken;
+import game.token.WallToken;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks for painting the board. Each benchmark paints a panel of the 
+ * standard size with a token in every layer of every square, and prints the 
+ * operations per second, the time for each operation, and the bytes allocated
+ * by each operation. Once the sprites and background have been drawn, a paint
+ * should allocate nothing.
+ * 
+ * The game paints a {@link BoardPanel} from a {@link BoardSnapshot}, with only
+ * the walls added to the panel as tokens. The {@link TokenGridPanel} 
+ * benchmarks paint tokens added to the panel itself.
+ * 
+ * Usage: <code>java ui.PaintBenchmarks [warm up ms] [measure ms]</code>
+ *
+ * @author littlewoo
+ */
+public class PaintBenchmarks {
+	/** the size of the margins around the board */
+	private static final int MARGIN_SIZE = 25;
+	/** the number of paints between set ups */
+	private static final int PAINT_BATCH = 16;
+	
+	/**
+	 * A benchmark which paints part of a full board into an image. The panel
+	 * painted is a {@link TokenGridPanel} with all its tokens added to it, 
+	 * unless {@link #makePanel()} is overridden.
+	 */
+	private static class PaintBenchmark extends Benchmark {
+		/** the part of the board to paint, in cells, or null for all of it */
+		private final Point cell;
+		
+		/** the panel painted, and the graphics it is painted on */
+		private TokenGridPanel panel;
+		private Graphics2D g;
+		
+		/**
+		 * Make a new PaintBenchmark.
+		 * 
+		 * @param name the name of the benchmark
+		 * @param cell the cell to paint, or null to paint the whole board
+		 */
+		PaintBenchmark(String name, Point cell) {
+			super(name, PAINT_BATCH);
+			this.cell = cell;
+		}
+		
+		@Override
+		protected void setUp() {
+			if (panel != null) {
+				return;
+			}
+			panel = makePanel();
+			Dimension size = panel.getPreferredSize();
+			BufferedImage image = new BufferedImage(size.width, size.height, 
+					BufferedImage.TYPE_INT_RGB);
+			g = image.createGraphics();
+			if (cell == null) {
+				g.setClip(0, 0, size.width, size.height);
+			} else {
+				Point loc = panel.getCellLoc(cell);
+				int half = BoardPanel.CELL_SIZE / 2;
+				g.setClip(loc.x - half, loc.y - half, 
+						  BoardPanel.CELL_SIZE, BoardPanel.CELL_SIZE);
+			}
+		}
+		
+		/**
+		 * @return the panel to paint
+		 */
+		protected TokenGridPanel makePanel() {
+			return makeFullBoard();
+		}
+		
+		@Override
+		protected void run() {
+			panel.paintComponent(g);
+		}
+	}
+	
+	/**
+	 * A benchmark which paints part of a {@link BoardPanel} showing a full 
+	 * snapshot, as the game does.
+	 */
+	private static class BoardPaintBenchmark extends PaintBenchmark {
+		
+		/**
+		 * Make a new BoardPaintBenchmark.
+		 * 
+		 * @param name the name of the benchmark
+		 * @param cell the cell to paint, or null to paint the whole board
+		 */
+		BoardPaintBenchmark(String name, Point cell) {
+			super(name, cell);
+		}
+		
+		@Override
+		protected TokenGridPanel makePanel() {
+			return makeFullBoardPanel();
+		}
+	}
+	
+	/**
+	 * Make a panel the size of the board from the benchmark fixtures, with 
+	 * walls, fire or smoke and a POI token on every square, a player on every
+	 * third square and a stack of tokens in the corner. Each player is a 
+	 * token of its own, as a token can only be in one place, with the 
+	 * colours taken in turn.
+	 * 
+	 * @return the panel
+	 */
+	private static TokenGridPanel makeFullBoard() {
+		Walls walls = Fixture.EMPTY.create().getWalls();
+		int width = walls.getWidth();
+		int height = walls.getHeight();
+		TokenGridPanel panel = new TokenGridPanel(BoardPanel.CELL_SIZE, 
+				MARGIN_SIZE, width, height);
+		panel.setOpaque(true);
+		Dimension size = panel.getPreferredSize();
+		panel.setSize(size);
+		String[] names = { "Red", "Blue", "Green" };
+		Color[] colours = { Color.RED, Color.BLUE, Color.GREEN };
+		int i = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				Point p = new Point(x, y);
+				panel.addToken(new WallToken(walls, x, y), p);
+				panel.addToken(i % 2 == 0 ? new FireToken() : new SmokeToken(),
+							   p);
+				POIQuestionMarkToken poi = 
+						new POIQuestionMarkToken(POIFaceType.VICTIM);
+				panel.addToken(i % 2 == 0 ? poi : new VictimPOIToken(poi), p);
+				if (i % 3 == 0) {
+					int k = (i / 3) % names.length;
+					panel.addToken(new PlayerToken(names[k], colours[k]), p);
+				}
+				i++;
+			}
+		}
+		TokenStackToken stack = new TokenStackToken(new FireToken());
+		stack.increment();
+		panel.addToken(stack, new Point(0, 0));
+		return panel;
+	}
+	
+	/**
+	 * Make a board panel for a game of the size of the benchmark fixtures, 
+	 * with the walls added to it and showing a snapshot with fire or smoke,
+	 * a POI token and an action marker on every square, and a player on every
+	 * third square.
+	 * 
+	 * @return the panel
+	 */
+	private static BoardPanel makeFullBoardPanel() {
+		Game game = Fixture.EMPTY.create();
+		Walls walls = game.getWalls();
+		int width = walls.getWidth();
+		int height = walls.getHeight();
+		BoardPanel panel = new BoardPanel(game, new EngineExecutor(0));
+		panel.setSize(panel.getPreferredSize());
+		PlayerToken[] players = {
+			new PlayerToken("Red", Color.RED),
+			new PlayerToken("Blue", Color.BLUE),
+			new PlayerToken("Green", Color.GREEN),
+		};
+		int squares = width * height;
+		byte[] threats = new byte[squares];
+		byte[] pois = new byte[squares];
+		byte[] playerBits = new byte[squares];
+		boolean[] markers = new boolean[squares];
+		for (int i = 0; i < squares; i++) {
+			panel.addToken(new WallToken(walls, i % width, i / width), 
+						   new Point(i % width, i / width));
+			threats[i] = i % 2 == 0 ? BoardSnapshot.FIRE : BoardSnapshot.SMOKE;
+			pois[i] = i % 2 == 0 ? BoardSnapshot.QUESTION_MARK 
+								 : BoardSnapshot.VICTIM;
+			if (i % 3 == 0) {
+				playerBits[i] = (byte) (1 << ((i / 3) % players.length));
+			}
+			markers[i] = true;
+		}
+		panel.showSnapshot(new BoardSnapshot(width, height, threats, pois, 
+				playerBits, markers, players, null, 0));
+		return panel;
+	}
+	
+	/**
+	 * Run all the benchmarks, and print the results.
+	 * 
+	 * @param args optionally, the time to warm up each benchmark for, and the
+	 * 			time to measure it for, in milliseconds
+	 */
+	public static void main(String[] args) {
+		long warmUp = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+		long measure = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+		
+		List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+		benchmarks.add(new PaintBenchmark(
+				"TokenGridPanel.paintComponent [full board]", null));
+		benchmarks.add(new PaintBenchmark(
+				"TokenGridPanel.paintComponent [one cell]", new Point(4, 3)));
+		benchmarks.add(new BoardPaintBenchmark(
+				"BoardPanel.paintComponent [full board]", null));
+		benchmarks.add(new BoardPaintBenchmark(
+				"BoardPanel.paintComponent [one cell]", new Point(4, 3)));
+		
+		for (Benchmark b : benchmarks) {
+			System.out.println(b.measure(warmUp, measure));
+		}
+	}
+}
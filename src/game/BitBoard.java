@@ -0,0 +1,345 @@
+/**
+ *  File name: BitBoard.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game;
+
+/**
+ * A set of squares on the board, stored as one bit per square. Squares are
+ * numbered row by row, so the square (x, y) has the index
+ * <code>y * width + x</code>. The standard 10x8 board fits in two longs.
+ *
+ * @author littlewoo
+ */
+public class BitBoard {
+	/** the dimensions of the board */
+	private final int width;
+	private final int height;
+
+	/** the bits, 64 squares to a word */
+	private final long[] words;
+	
+	/** 
+	 * masks of the squares not in the first and last columns, used to stop
+	 * {@link #setToNeighbours(BitBoard)} wrapping round from one row to the 
+	 * next. Only made when first needed.
+	 */
+	private long[] notFirstColumn;
+	private long[] notLastColumn;
+
+	/**
+	 * Make a new, empty BitBoard.
+	 *
+	 * @param width the width of the board
+	 * @param height the height of the board
+	 */
+	public BitBoard(int width, int height) {
+		this.width = width;
+		this.height = height;
+		words = new long[(width * height + 63) >>> 6];
+	}
+
+	/**
+	 * @return the width of the board
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the height of the board
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return the number of squares on the board
+	 */
+	public int size() {
+		return width * height;
+	}
+
+	/**
+	 * Get the index of a square.
+	 *
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return the index of the square
+	 */
+	public int index(int x, int y) {
+		return y * width + x;
+	}
+
+	/**
+	 * @param i the index of the square
+	 * @return true if the square is in the set
+	 */
+	public boolean get(int i) {
+		return (words[i >>> 6] & (1L << i)) != 0;
+	}
+
+	/**
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return true if the square is in the set
+	 */
+	public boolean get(int x, int y) {
+		return get(index(x, y));
+	}
+
+	/**
+	 * Add a square to the set.
+	 *
+	 * @param i the index of the square
+	 */
+	public void set(int i) {
+		words[i >>> 6] |= 1L << i;
+	}
+
+	/**
+	 * Remove a square from the set.
+	 *
+	 * @param i the index of the square
+	 */
+	public void clear(int i) {
+		words[i >>> 6] &= ~(1L << i);
+	}
+
+	/**
+	 * Remove all the squares from the set.
+	 */
+	public void clear() {
+		for (int w = 0; w < words.length; w++) {
+			words[w] = 0;
+		}
+	}
+
+	/**
+	 * Make this set the same as another.
+	 *
+	 * @param other the set to copy, which must be the same size as this one
+	 */
+	public void copyFrom(BitBoard other) {
+		System.arraycopy(other.words, 0, words, 0, words.length);
+	}
+
+	/**
+	 * Add all the squares of another set to this one.
+	 *
+	 * @param other the other set
+	 */
+	public void or(BitBoard other) {
+		for (int w = 0; w < words.length; w++) {
+			words[w] |= other.words[w];
+		}
+	}
+
+	/**
+	 * Remove all the squares from this set which are not in another.
+	 *
+	 * @param other the other set
+	 */
+	public void and(BitBoard other) {
+		for (int w = 0; w < words.length; w++) {
+			words[w] &= other.words[w];
+		}
+	}
+
+	/**
+	 * Remove all the squares from this set which are in another.
+	 *
+	 * @param other the other set
+	 */
+	public void andNot(BitBoard other) {
+		for (int w = 0; w < words.length; w++) {
+			words[w] &= ~other.words[w];
+		}
+	}
+
+	/**
+	 * Add to this set every square which is in either this set or another,
+	 * but not both.
+	 *
+	 * @param other the other set
+	 */
+	public void xor(BitBoard other) {
+		for (int w = 0; w < words.length; w++) {
+			words[w] ^= other.words[w];
+		}
+	}
+
+	/**
+	 * Make this set the squares which are adjacent (north, south, east or 
+	 * west) to any square in another set. This is done a word at a time, by 
+	 * shifting the other set one square along and one row up and down.
+	 *
+	 * @param other the other set, which must be the same size as this one,
+	 * 			and must not be this set
+	 */
+	public void setToNeighbours(BitBoard other) {
+		if (notFirstColumn == null) {
+			makeColumnMasks();
+		}
+		long[] src = other.words;
+		for (int w = 0; w < words.length; w++) {
+			long east = shifted(src, w, 1) & notFirstColumn[w];
+			long west = shifted(src, w, -1) & notLastColumn[w];
+			long south = shifted(src, w, width);
+			long north = shifted(src, w, -width);
+			words[w] = east | west | south | north;
+		}
+		int extra = size() & 63;
+		if (extra != 0) {
+			words[words.length - 1] &= (1L << extra) - 1;
+		}
+	}
+
+	/**
+	 * Make the masks of the squares not in the first and last columns.
+	 */
+	private void makeColumnMasks() {
+		notFirstColumn = new long[words.length];
+		notLastColumn = new long[words.length];
+		for (int i = 0; i < size(); i++) {
+			int x = i % width;
+			if (x != 0) {
+				notFirstColumn[i >>> 6] |= 1L << i;
+			}
+			if (x != width - 1) {
+				notLastColumn[i >>> 6] |= 1L << i;
+			}
+		}
+	}
+
+	/**
+	 * Get a word of a set of bits, as it would be if all the bits were moved
+	 * a given number of places towards the higher indices.
+	 *
+	 * @param src the bits
+	 * @param w the index of the word to get
+	 * @param k the number of places to move the bits (may be negative)
+	 * @return the word
+	 */
+	private static long shifted(long[] src, int w, int k) {
+		int start = (w << 6) - k;
+		int sw = start >> 6;
+		int sb = start & 63;
+		if (sb == 0) {
+			return wordAt(src, sw);
+		}
+		return (wordAt(src, sw) >>> sb) | (wordAt(src, sw + 1) << (64 - sb));
+	}
+
+	/**
+	 * @param src the bits
+	 * @param w the index of a word
+	 * @return the word, or 0 if the index is outside the array
+	 */
+	private static long wordAt(long[] src, int w) {
+		return (w >= 0 && w < src.length) ? src[w] : 0;
+	}
+
+	/**
+	 * @param other the other set
+	 * @return true if there is any square in both this set and the other
+	 */
+	public boolean intersects(BitBoard other) {
+		for (int w = 0; w < words.length; w++) {
+			if ((words[w] & other.words[w]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if there are no squares in the set
+	 */
+	public boolean isEmpty() {
+		for (int w = 0; w < words.length; w++) {
+			if (words[w] != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the number of squares in the set
+	 */
+	public int cardinality() {
+		int count = 0;
+		for (int w = 0; w < words.length; w++) {
+			count += Long.bitCount(words[w]);
+		}
+		return count;
+	}
+
+	/**
+	 * Find the next square in the set, starting from a given index. To iterate
+	 * over the set:
+	 * <code>
+	 * 		for (int i = b.nextSetBit(0); i >= 0; i = b.nextSetBit(i + 1))
+	 * </code>
+	 *
+	 * @param from the index to start from (inclusive)
+	 * @return the index of the next square in the set, or -1 if there is none
+	 */
+	public int nextSetBit(int from) {
+		int w = from >>> 6;
+		if (w >= words.length) {
+			return -1;
+		}
+		long word = words[w] & (-1L << from);
+		while (true) {
+			if (word != 0) {
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			}
+			if (++w == words.length) {
+				return -1;
+			}
+			word = words[w];
+		}
+	}
+
+	/**
+	 * Find the square in the set with a given number of squares before it,
+	 * i.e. the (n+1)th square, counting in order of index. Whole words are 
+	 * skipped by counting their bits, so this takes time in proportion to the
+	 * number of words rather than the number of squares.
+	 *
+	 * @param n the number of squares in the set before the one wanted
+	 * @return the index of the square, or -1 if the set has n squares or fewer
+	 */
+	public int nthSetBit(int n) {
+		for (int w = 0; w < words.length; w++) {
+			long word = words[w];
+			int count = Long.bitCount(word);
+			if (n < count) {
+				for (int k = 0; k < n; k++) {
+					word &= word - 1;
+				}
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			}
+			n -= count;
+		}
+		return -1;
+	}
+}
@@ -21,12 +21,10 @@
 package game;
 
 import game.Walls.Direction;
-import game.token.FireToken;
 import game.token.POIFaceToken;
 import game.token.POIQuestionMarkToken;
 import game.token.POIToken;
 import game.token.PlayerToken;
-import game.token.SmokeToken;
 import game.token.ThreatToken;
 import game.token.Token;
 import game.token.VictimPOIToken;
@@ -36,8 +34,10 @@ import interfaces.POIEventListener.POIEvent;
 
 import java.awt.Point;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -48,13 +48,23 @@ import java.util.Set;
  * @author littlewoo
  */
 public class Board {
+	/** the dimensions of the board */
+	private final int width;
+	private final int height;
+	
 	/** The locations around the edge of the board */
-	private Set<Point> edges;
+	private BitBoard edges;
+	/** The locations inside the edge of the board */
+	private BitBoard interior;
+	/** working space for finding free squares */
+	private final BitBoard free;
+	/** the way squares are chosen to place tokens on */
+	private PlacementPolicy placementPolicy = PlacementPolicy.DICE;
 	
-	/** The locations of all the tokens in the game */
+	/** The locations of all the tokens in the game, other than threats */
 	private Map<Token, Point> tokenLocs;
-	/** The fire tokens. */
-	private TokenLayer<ThreatToken> fireLayer;
+	/** The fire and smoke. */
+	private ThreatLayer fireLayer;
 	/** The player tokens */
 	private TokenLayer<PlayerToken> playersLayer;
 	/** The POI tokens */
@@ -62,23 +72,66 @@ public class Board {
 	
 	/** the walls on the board */
 	private Walls walls;
+	/** the squares adjacent to each square */
+	private final NeighbourTable neighbours;
+	/** for each square, a bit for each direction in which a player can move
+	 *  out of it (i.e. the neighbour is on the board, with no wall between) */
+	private final byte[] passable;
+	/** for each square, the number of changes there have been to the tokens 
+	 *  on it and on the squares next to it */
+	private final int[] neighbourhoodVersions;
+	/** the number of changes there have been to the tokens on the board */
+	private int version;
+	/** the distance of each square from the nearest edge, or null if it has
+	 *  not been asked for yet */
+	private ExitDistanceField exitDistances;
+	
+	/** the number of explosions there have been on the board */
+	private int explosionCount;
 
 	/** Listeners for changes to the tokens in the game. */
 	private List<TokenChangeListener> tokenChangeListeners;
+	/** Listeners for batches of changes to the tokens in the game */
+	private List<TokenChangeBatchListener> batchListeners;
+	/** the number of batches begun and not yet committed */
+	private int batchDepth;
+	/** the changes made since the batch began, for each square and layer,
+	 *  in the order in which they were first changed */
+	private final Map<Integer, PendingChange> pendingChanges = 
+			new LinkedHashMap<Integer, PendingChange>();
+	
+	/** the number of layers a square's tokens can be in, for batching */
+	private static final int LAYER_COUNT = 5;
 	/** listeners for POI token events */
 	private List<POIEventListener> poiEventListeners; 
 
 	/**
 	 * Construct a new Board.
+	 * 
+	 * @param width the width of the board, including the edge
+	 * @param height the height of the board, including the edge
 	 */
 	public Board(int width, int height) {
+		this.width = width;
+		this.height = height;
 		tokenLocs = new HashMap<Token, Point>();
 		playersLayer = new TokenLayer<PlayerToken>(width, height);
-		fireLayer = new TokenLayer<ThreatToken>(width, height);
+		fireLayer = new ThreatLayer(width, height);
 		poiLayer = new TokenLayer<POIToken>(width, height);
 
 		tokenChangeListeners = new ArrayList<TokenChangeListener>();
 		edges = getEdges();
+		interior = getInterior();
+		free = new BitBoard(width, height);
+		playersLayer.trackFreeSquares(interior);
+		poiLayer.trackFreeSquares(interior);
+		
+		neighbours = NeighbourTable.forSize(width, height);
+		passable = new byte[width * height];
+		neighbourhoodVersions = new int[width * height];
+		for (int i = 0; i < passable.length; i++) {
+			passable[i] = (byte) neighbours.getOnBoardDirections(i);
+		}
 	}
 
 	/** 
@@ -89,62 +142,37 @@ public class Board {
 		walls = w;
 		for (int x=0; x<getWidth(); x++) {
 			for (int y=0; y<getHeight(); y++) {
-				addToken(new Point(x, y), new WallToken(w.getWalls(x, y)));
+				addToken(new Point(x, y), new WallToken(w, x, y));
+				int i = index(x, y);
+				passable[i] = (byte) (neighbours.getOnBoardDirections(i) & 
+									  w.getPassableDirections(x, y));
 			}
 		}
 	}
-	
-	/**
-	 * Get a set of squares adjacent to a token
-	 * 
-	 * @return the set of squares
-	 */
-	private Set<Point> getAdjacentSquares(Token t) {
-		Point p = tokenLocs.get(t);
-		if (p != null) {
-			return getAdjacentSquares(p.x, p.y);
-		}
-		return new HashSet<Point>();
-	}
-
-	/** 
-	 * Get a set of squares adjacent to a location
-	 * 
-	 * @param x the x coordinate
-	 * @param y the y coordinate
-	 * @return
-	 */
-	private Set<Point> getAdjacentSquares(int x, int y) {
-		Set<Point> result = new HashSet<Point>();
-		Point p = new Point(x, y);
-		if (p.x > 0) {
-			result.add(new Point(p.x-1, p.y));
-		}
-		if (p.x < getWidth()-1) {
-			result.add(new Point(p.x+1, p.y));
-		}
-		if (p.y > 0) {
-			result.add(new Point(p.x, p.y-1));
-		}
-		if (p.y < getHeight()-1) {
-			result.add(new Point(p.x, p.y+1));
-		}
-		
-		return result;
-	}
 
 	/** 
 	 * @return the width of the board
 	 */
-	private int getWidth() {
-		return Game.WIDTH;
+	public int getWidth() {
+		return width;
 	}
 	
 	/**
 	 * @return the height of the board 
 	 */
-	private int getHeight() {
-		return Game.HEIGHT;
+	public int getHeight() {
+		return height;
+	}
+	
+	/**
+	 * Get the index of a square, as used by the threat layer.
+	 * 
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return the index of the square
+	 */
+	private int index(int x, int y) {
+		return y * getWidth() + x;
 	}
 	
 	/**
@@ -172,9 +200,8 @@ public class Board {
 	 * @return true if the token was successfully placed
 	 */
 	public boolean addPlayerToken(int x, int y, PlayerToken t) {
-		Point p = new Point(x, y);
-		if (playersLayer.addToken(t, p)) {
-			addToken(p, t);
+		if (playersLayer.put(x, y, t)) {
+			addToken(new Point(x, y), t);
 			return true;
 		}
 		return false;
@@ -191,12 +218,12 @@ public class Board {
 	 * 				already present
 	 */
 	public boolean addThreatToken(int x, int y, ThreatToken t) {
-		Point p = new Point(x, y);
-		if (fireLayer.getTokenAt(p) != null) {
+		checkCoordinates(x, y, true);
+		if (!fireLayer.addToken(index(x, y), t)) {
 			return false;
 		}
-		addToken(p, t);
-		fireLayer.addToken(t, new Point(x, y));
+		alertTokenChangeListeners(
+				new TokenChangeEvent(x, y, t, TokenChangeType.ADD));
 		return true;
 	}
 	
@@ -212,11 +239,11 @@ public class Board {
 	 * 				fire already present)
 	 */
 	public boolean addPOIToken(Point p, POIToken t, boolean replaceFire) {
-		if (poiLayer.getTokenAt(p) != null && !replaceFire && isFireAt(p)) {
+		if (poiLayer.get(p.x, p.y) != null || (!replaceFire && isFireAt(p))) {
 			return false;
 		}
+		poiLayer.put(p.x, p.y, t);
 		addToken(p, t);
-		poiLayer.addToken(t, p);
 		return true;
 	}
 
@@ -243,33 +270,11 @@ public class Board {
 	public void removePlayerToken(PlayerToken t) {
 		Point p = tokenLocs.get(t);
 		if (p != null) {
-			playersLayer.removeToken(p);
+			playersLayer.remove(p.x, p.y);
 			removeToken(t);
 		}
 	}
 
-	/**
-	 * Remove a threat token from the board
-	 * 
-	 * @param t the token to be removed
-	 */
-	private void removeThreatToken(ThreatToken t) {
-		Point p = tokenLocs.get(t);
-		removeThreatToken(p.x, p.y);
-	}
-
-	/**
-	 * Remove a threat token from the board, given its location.
-	 * 
-	 * @param x the x coordinate
-	 * @param y the y coordinate
-	 */
-	private void removeThreatToken(int x, int y) {
-		Point p = new Point(x, y);
-		ThreatToken t = fireLayer.removeToken(p);
-		removeToken(t);
-	}
-	
 	/** 
 	 * Remove a POI token from the board.
 	 * 
@@ -277,7 +282,7 @@ public class Board {
 	 */
 	private void removePOIToken(POIToken t) {
 		Point p = tokenLocs.get(t);
-		poiLayer.removeToken(p);
+		poiLayer.remove(p.x, p.y);
 		removeToken(t);
 	}
 
@@ -296,35 +301,31 @@ public class Board {
 	}
 	
 	/**
-	 * Check whether a move between two adjacent squares is passable by a player
-	 * token. Checks for walls and other player tokens.
+	 * Get the directions in which a player token can make a single square move,
+	 * i.e. those not blocked by walls, the edge of the board or other player 
+	 * tokens. This makes no checks as to other factors limiting a player's 
+	 * movement (notably AP cost of the move, and whether the player can afford
+	 * to make it).
 	 * 
-	 * @param p1 the source square
-	 * @param p2 the destination square
-	 * @return true if the move is possible
+	 * @param player the playerToken to get moves for
+	 * @return a mask with the bit {@link Direction#getBit()} set for each
+	 * 			direction the player can move in
 	 */
-	private boolean isMovable(Point p1, Point p2) {
-		if (getAdjacentSquares(p1.x, p1.y).contains(p2)) {
-			Direction dir;
-			if (p1.x == p2.x) {
-				if (p1.y > p2.y) {
-					dir = Direction.NORTH;
-				} else {
-					dir = Direction.SOUTH;
-				}
-			} else {
-				if (p1.x > p2.x){
-					dir = Direction.WEST;
-				} else {
-					dir = Direction.EAST;
-				}
+	public int getMoveDirections(PlayerToken player) {
+		Point loc = tokenLocs.get(player);
+		if (loc == null) {
+			return 0;
+		}
+		int i = index(loc.x, loc.y);
+		int dirs = passable[i];
+		int result = 0;
+		for (int d = 0; d < NeighbourTable.DIRECTION_COUNT; d++) {
+			if ((dirs & (1 << d)) != 0 && 
+				playersLayer.get(neighbours.getNeighbour(i, d)) == null) {
+				result |= 1 << d;
 			}
-			boolean passable = walls.isPassable(p1.x, p1.y, dir);
-			boolean empty = playersLayer.getTokenAt(p2) == null;
-			return passable && empty;
-		} else {
-			throw new IllegalArgumentException("Points not adjacent.");
 		}
+		return result;
 	}
 	
 	/**
@@ -337,10 +338,15 @@ public class Board {
 	 */
 	public Set<Point> getPossibleMoves(PlayerToken player) {
 		Set<Point> result = new HashSet<Point>();
-		Point loc = tokenLocs.get(player);
-		for (Point p : getAdjacentSquares(player)) {
-			if (isMovable(loc, p)) {
-				result.add(p);
+		int dirs = getMoveDirections(player);
+		if (dirs != 0) {
+			Point loc = tokenLocs.get(player);
+			int i = index(loc.x, loc.y);
+			for (int d = 0; d < NeighbourTable.DIRECTION_COUNT; d++) {
+				if ((dirs & (1 << d)) != 0) {
+					int n = neighbours.getNeighbour(i, d);
+					result.add(new Point(n % getWidth(), n / getWidth()));
+				}
 			}
 		}
 		return result;
@@ -350,7 +356,74 @@ public class Board {
 	 * @return true if there is a fire at a given location
 	 */
 	public boolean isFireAt(Point p) {
-		return fireLayer.getTokenAt(p) instanceof FireToken;
+		return isFireAt(p.x, p.y);
+	}
+	
+	/**
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return true if there is a fire at a given location
+	 */
+	public boolean isFireAt(int x, int y) {
+		return fireLayer.isFireAt(index(x, y));
+	}
+	
+	/**
+	 * @param i the index of the square
+	 * @return true if there is a fire on the square
+	 */
+	public boolean isFireAt(int i) {
+		return fireLayer.isFireAt(i);
+	}
+	
+	/**
+	 * @param i the index of the square
+	 * @return true if there is a player on the square
+	 */
+	public boolean isPlayerAt(int i) {
+		return playersLayer.get(i) != null;
+	}
+	
+	/**
+	 * @param i the index of the square
+	 * @return true if there is a POI token on the square
+	 */
+	public boolean isPOIAt(int i) {
+		return poiLayer.get(i) != null;
+	}
+	
+	/**
+	 * @param i the index of the square
+	 * @return true if there is a POI token on the square which has not yet 
+	 * 			been turned over
+	 */
+	public boolean isHiddenPOIAt(int i) {
+		return poiLayer.get(i) instanceof POIQuestionMarkToken;
+	}
+	
+	/**
+	 * @param i the index of the square
+	 * @return a mask with the bit {@link Direction#getBit()} set for each 
+	 * 			direction in which a player can move out of the square, i.e.
+	 * 			the neighbour is on the board with no wall in between. Other
+	 * 			players are not taken into account.
+	 */
+	public int getPassableDirections(int i) {
+		return passable[i];
+	}
+
+	/**
+	 * @return the number of squares with fire on them
+	 */
+	public int getFireCount() {
+		return fireLayer.getFire().cardinality();
+	}
+	
+	/**
+	 * @return the number of explosions there have been on the board
+	 */
+	public int getExplosionCount() {
+		return explosionCount;
 	}
 
 	/**
@@ -364,7 +437,8 @@ public class Board {
 	 * @return true if the coordinates are in bounds 
 	 */
 	private boolean checkCoordinates(int x, int y, boolean throwException) {
-		boolean inBounds = !(x < 0 || x > getWidth() || y < 0 || y > getHeight());
+		boolean inBounds = 
+				!(x < 0 || x >= getWidth() || y < 0 || y >= getHeight());
 		if (throwException && !inBounds) {
 			throw new IllegalArgumentException(
 				"Board.addToken: location out of bounds. (" + x + "," + y + ")");
@@ -373,20 +447,136 @@ public class Board {
 	}
 	
 	/**
-	 * @return a set of coordinates around the edge of the board
+	 * @return the set of squares around the edge of the board
 	 */
-	private Set<Point> getEdges() {
-		Set<Point> edges = new HashSet<Point>();
+	private BitBoard getEdges() {
+		BitBoard edges = new BitBoard(getWidth(), getHeight());
 		for (int x=0; x<getWidth(); x++) {
-			edges.add(new Point(x, 0));
-			edges.add(new Point(x, getHeight()-1));
+			edges.set(index(x, 0));
+			edges.set(index(x, getHeight()-1));
 		}
-		for (int y=0; y<getWidth(); y++) {
-			edges.add(new Point(0, y));
-			edges.add(new Point(getWidth()-1, y));
+		for (int y=0; y<getHeight(); y++) {
+			edges.set(index(0, y));
+			edges.set(index(getWidth()-1, y));
 		}
 		return edges;
 	}
+	
+	/**
+	 * @return the set of squares inside the edge of the board
+	 */
+	private BitBoard getInterior() {
+		BitBoard interior = new BitBoard(getWidth(), getHeight());
+		for (int y=1; y<getHeight()-1; y++) {
+			for (int x=1; x<getWidth()-1; x++) {
+				interior.set(index(x, y));
+			}
+		}
+		return interior;
+	}
+	
+	/**
+	 * Set the way in which squares are chosen to place tokens on.
+	 * 
+	 * @param policy the policy
+	 */
+	public void setPlacementPolicy(PlacementPolicy policy) {
+		placementPolicy = policy;
+	}
+	
+	/**
+	 * @return the way in which squares are chosen to place tokens on
+	 */
+	public PlacementPolicy getPlacementPolicy() {
+		return placementPolicy;
+	}
+	
+	/**
+	 * Choose a random square inside the edge of the board with no player token
+	 * on it. With the {@link PlacementPolicy#DICE} policy, the square is first
+	 * picked by rolling a die for each coordinate, as in the board game. If 
+	 * that square is taken, one of the free squares is picked instead with a
+	 * single roll, so the choice is uniform over the free squares however full
+	 * the board is, without rolling again and again. With the 
+	 * {@link PlacementPolicy#UNIFORM} policy, a free square is picked straight
+	 * from the layer's index of free squares.
+	 * 
+	 * @param roller the source of the dice rolls
+	 * @return the square, or null if there are no free squares
+	 */
+	public Point choosePlayerSquare(DiceRoller roller) {
+		if (placementPolicy == PlacementPolicy.UNIFORM) {
+			return chooseFreeSquare(roller, playersLayer.getFreeSquares());
+		}
+		int x = roller.roll(getWidth() - 2);
+		int y = roller.roll(getHeight() - 2);
+		if (playersLayer.get(x, y) == null) {
+			return new Point(x, y);
+		}
+		free.copyFrom(interior);
+		free.andNot(playersLayer.getOccupied());
+		return chooseFreeSquare(roller);
+	}
+	
+	/**
+	 * Choose a random square inside the edge of the board where a POI token 
+	 * could be placed, in the same way as 
+	 * {@link #choosePlayerSquare(DiceRoller)}. If POI tokens cannot replace
+	 * fire, the index of free squares cannot be used, as it does not know 
+	 * about fire, so the {@link PlacementPolicy#DICE} policy is always used.
+	 * 
+	 * @param roller the source of the dice rolls
+	 * @param replaceFire if false, squares with fire on are not free
+	 * @return the square, or null if there are no free squares
+	 */
+	public Point choosePOISquare(DiceRoller roller, boolean replaceFire) {
+		if (placementPolicy == PlacementPolicy.UNIFORM && replaceFire) {
+			return chooseFreeSquare(roller, poiLayer.getFreeSquares());
+		}
+		int x = roller.roll(getWidth() - 2);
+		int y = roller.roll(getHeight() - 2);
+		if (poiLayer.get(x, y) == null && (replaceFire || !isFireAt(x, y))) {
+			return new Point(x, y);
+		}
+		free.copyFrom(interior);
+		free.andNot(poiLayer.getOccupied());
+		if (!replaceFire) {
+			free.andNot(fireLayer.getFire());
+		}
+		return chooseFreeSquare(roller);
+	}
+	
+	/**
+	 * Pick one of the squares in {@link #free} with a single die roll.
+	 * 
+	 * @param roller the source of the dice rolls
+	 * @return the square, or null if there are no free squares
+	 */
+	private Point chooseFreeSquare(DiceRoller roller) {
+		int count = free.cardinality();
+		if (count == 0) {
+			return null;
+		}
+		int i = free.nthSetBit(roller.roll(count) - 1);
+		return new Point(i % getWidth(), i / getWidth());
+	}
+	
+	/**
+	 * Pick one of the squares in an index of free squares with a single die
+	 * roll.
+	 * 
+	 * @param roller the source of the dice rolls
+	 * @param index the free squares
+	 * @return the square, or null if there are no free squares
+	 */
+	private Point chooseFreeSquare(DiceRoller roller, FreeCellIndex index) {
+		int count = index.size();
+		if (count == 0) {
+			return null;
+		}
+		int i = index.get(roller.roll(count) - 1);
+		return new Point(i % getWidth(), i / getWidth());
+	}
 
 	/**
 	 * Carry out the advance fire phase of the game, centred on a given square.
@@ -399,97 +589,83 @@ public class Board {
 	 * @param y the y coordinate of the target
 	 */
 	void advanceFire(int x, int y) {
-		Point p = new Point(x, y);
-		ThreatToken t = fireLayer.getTokenAt(p);
-		if (t == null) {
-			addThreatToken(x, y, new SmokeToken());
-		} else if (t instanceof SmokeToken) {
-			removeThreatToken(t);
-			addThreatToken(x, y, new FireToken());
-		} else {
+		int i = index(x, y);
+		if (fireLayer.isFireAt(i)) {
 			fireExplosion(x, y);
+		} else if (fireLayer.isSmokeAt(i)) {
+			fireLayer.placeFire(i);
+		} else {
+			fireLayer.placeSmoke(i);
 		}
+		updateThreatTokens();
 	}
 
 	/** 
 	 * Remove any fire tokens from around the outside edge of the board.
 	 */
 	public void removeFireFromEdges() {
-		for (Point p : edges) {
-			removeThreatToken(p.x, p.y);
-		}
+		fireLayer.getFire().andNot(edges);
+		fireLayer.getSmoke().andNot(edges);
+		fireLayer.markDirty(edges);
+		updateThreatTokens();
 	}
 
 	/** 
 	 * Wherever a smoke token is adjacent to a fire token, change it into a fire
 	 * token. If this places another smoke token adjacent to a fire token, 
 	 * carry on until there are no smoke tokens adjacent to fire tokens left.
+	 * The whole change is worked out on the bitboards first, and the 
+	 * listeners are then told about all the changed tokens together.
 	 */
 	public void smokeIntoFire() {
-		for (int x = 0; x < getWidth(); x++) {
-			for (int y = 0; y < getHeight(); y++) {
-				Point p = new Point(x, y);
-				ThreatToken t = fireLayer.getTokenAt(p);
-				if (t != null && tokenLocs.get(t) == null) {
-					System.out.println("Item is in the fire layer but not tokenlocs: " + p);
-					System.out.println("FireLayer:\n" + fireLayer);
-					System.out.println("TokenLocs:\n" + tokenLocs);
-				}
-				if (t instanceof FireToken) {
-					smokeIntoFire((FireToken) t);
-				}
-			}
-		}
-	}
-
-	/**
-	 * Check a fire token, to see whether it is adjacent to any smoken tokens.
-	 * If it is, change to smoke token to a fire token, and recursively call 
-	 * this method on that token.
-	 * 
-	 * @param t the firetoken to be checked
-	 */ 
-	private void smokeIntoFire(FireToken t) {
-		Set<Point> testPoints = getAdjacentSquares(t);
-		
-		for (Point np : testPoints) {
-			ThreatToken tt = fireLayer.getTokenAt(np);
-			if (tt instanceof SmokeToken) {
-				removeThreatToken(tt);
-				FireToken ft = new FireToken();
-				addThreatToken(np.x, np.y, ft);
-				smokeIntoFire(ft);
-			}
-		}
+		fireLayer.smokeIntoFire();
+		updateThreatTokens();
 	}
 
 	/**
-	 * Calculate and apply the results of an explosion on a given location. 
+	 * Calculate and apply the results of an explosion on a given location. In
+	 * each direction, the blast travels through any fire, and places fire on 
+	 * the first square without fire. A blast which reaches the edge of the 
+	 * board stops there.
 	 * 
 	 * @param x the x coordinate of the explosion's centre
 	 * @param y the y coordinate of the explosion's centre
 	 */
 	private void fireExplosion(int x, int y) {
-		Point[] directions = new Point[] { 
-				new Point(-1, 0), // west
-				new Point(1, 0), // east
-				new Point(0, -1), // north
-				new Point(0, 1) }; // south
-
-		for (Point p : directions) {
-			int xOffset = x + p.x;
-			int yOffset = y + p.y;
-			ThreatToken t = fireLayer.getTokenAt(new Point(xOffset, yOffset));
-			while (t != null && t instanceof FireToken) {
-				xOffset += p.x;
-				yOffset += p.y;
-				t = fireLayer.getTokenAt(new Point(xOffset, yOffset));
+		explosionCount ++;
+		int centre = index(x, y);
+		for (int d = 0; d < NeighbourTable.DIRECTION_COUNT; d++) {
+			int i = neighbours.getNeighbour(centre, d);
+			while (i >= 0 && fireLayer.isFireAt(i)) {
+				i = neighbours.getNeighbour(i, d);
 			}
-			if (t != null) {
-				removeThreatToken(t);
+			if (i >= 0) {
+				fireLayer.placeFire(i);
+			}
+		}
+	}
+	
+	/**
+	 * Bring the threat tokens up to date with the fire and smoke on the board,
+	 * alerting the listeners to each token removed or added.
+	 */
+	private void updateThreatTokens() {
+		for (int i = fireLayer.nextDirty(0); i >= 0; 
+				 i = fireLayer.nextDirty(i + 1)) {
+			ThreatToken old = fireLayer.getTokenAt(i);
+			if (fireLayer.updateToken(i)) {
+				int x = i % getWidth();
+				int y = i / getWidth();
+				if (old != null) {
+					alertTokenChangeListeners(new TokenChangeEvent(
+							x, y, old, TokenChangeType.REMOVE));
+				}
+				ThreatToken t = fireLayer.getTokenAt(i);
+				if (t != null) {
+					alertTokenChangeListeners(new TokenChangeEvent(
+							x, y, t, TokenChangeType.ADD));
+				}
 			}
-			addThreatToken(xOffset, yOffset, new FireToken());
-
 		}
 	}
 
@@ -500,9 +676,205 @@ public class Board {
 	 * @param e a tokenChangeEvent to be passed to the listeners.
 	 */
 	private void alertTokenChangeListeners(TokenChangeEvent e) {
+		int i = index(e.getX(), e.getY());
+		version++;
+		bumpNeighbourhoodVersions(i);
+		if (exitDistances != null && (e.getToken() instanceof ThreatToken ||
+									  e.getToken() instanceof WallToken)) {
+			exitDistances.markChanged(i);
+		}
 		for (TokenChangeListener l : tokenChangeListeners) {
 			l.onTokenChange(e);
 		}
+		if (batchListeners == null) {
+			return;
+		}
+		if (batchDepth == 0) {
+			alertBatchListeners(Collections.singletonList(e));
+		} else {
+			recordChange(e);
+		}
+	}
+	
+	/**
+	 * Count a change to the tokens on a square, in the neighbourhood versions
+	 * of the square and the squares next to it.
+	 * 
+	 * @param i the index of the square
+	 */
+	private void bumpNeighbourhoodVersions(int i) {
+		neighbourhoodVersions[i]++;
+		for (int d = 0; d < NeighbourTable.DIRECTION_COUNT; d++) {
+			int n = neighbours.getNeighbour(i, d);
+			if (n >= 0) {
+				neighbourhoodVersions[n]++;
+			}
+		}
+	}
+	
+	/**
+	 * Get the version of the neighbourhood of a square. This changes whenever
+	 * a token is added to, removed from or replaced on the square or one of 
+	 * the squares next to it, so anything worked out from the neighbourhood 
+	 * can be kept until the version changes.
+	 * 
+	 * @param i the index of the square
+	 * @return the version of the square's neighbourhood
+	 */
+	public int getNeighbourhoodVersion(int i) {
+		return neighbourhoodVersions[i];
+	}
+	
+	/**
+	 * Get the version of the whole board. This changes whenever a token is
+	 * added to, removed from or replaced on any square.
+	 * 
+	 * @return the version of the board
+	 */
+	public int getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Get the cost of the cheapest way from a square to the edge of the board,
+	 * where victims are rescued. Moves cannot pass through walls, and moving
+	 * into fire costs the AP of a move into fire. The distances are kept up 
+	 * to date as the fire and walls change, so this takes constant time 
+	 * unless they have changed since it was last called.
+	 * 
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return the AP cost of reaching the edge from the square, 0 if it is on
+	 * 			the edge, or -1 if the edge cannot be reached
+	 */
+	public int getExitDistance(int x, int y) {
+		checkCoordinates(x, y, true);
+		if (exitDistances == null) {
+			exitDistances = new ExitDistanceField(this, edges);
+		}
+		return exitDistances.getDistance(index(x, y));
+	}
+	
+	/**
+	 * Get the index of the square a token is on, numbering the squares row by
+	 * row.
+	 * 
+	 * @param t the token
+	 * @return the index of the square, or -1 if the token is not on the board
+	 */
+	public int getSquare(Token t) {
+		Point p = tokenLocs.get(t);
+		return p == null ? -1 : index(p.x, p.y);
+	}
+	
+	/**
+	 * Record a change made during a batch, combining it with any earlier 
+	 * change to the same layer of the same square. Only the token there 
+	 * before the batch and the token there now are kept.
+	 * 
+	 * @param e the change
+	 */
+	private void recordChange(TokenChangeEvent e) {
+		int key = index(e.getX(), e.getY()) * LAYER_COUNT + 
+				  getLayer(e.getToken());
+		PendingChange c = pendingChanges.get(key);
+		boolean removed = e.getChange() == TokenChangeType.REMOVE;
+		if (c == null) {
+			c = new PendingChange(e.getX(), e.getY(), 
+								  removed ? e.getToken() : null);
+			pendingChanges.put(key, c);
+		}
+		c.after = removed ? null : e.getToken();
+	}
+	
+	/**
+	 * Get the layer of the board a token is in. A square can have at most one
+	 * token in each layer.
+	 * 
+	 * @param t the token
+	 * @return the layer, from 0 to {@link #LAYER_COUNT} - 1
+	 */
+	private static int getLayer(Token t) {
+		if (t instanceof WallToken) {
+			return 0;
+		} else if (t instanceof ThreatToken) {
+			return 1;
+		} else if (t instanceof POIToken) {
+			return 2;
+		} else if (t instanceof PlayerToken) {
+			return 3;
+		}
+		return 4;
+	}
+	
+	/**
+	 * Begin a batch of changes. Until the batch is committed, the batch 
+	 * listeners are not told about changes to the tokens; instead, the 
+	 * changes are collected, and delivered together when the batch is 
+	 * committed. Batches may be nested, in which case the changes are 
+	 * delivered when the outermost batch is committed. The ordinary token 
+	 * change listeners are still told about every change as it happens.
+	 */
+	public void beginBatch() {
+		batchDepth ++;
+	}
+	
+	/**
+	 * Commit a batch of changes begun with {@link #beginBatch()}.
+	 * 
+	 * @throws IllegalStateException if there is no batch to commit
+	 */
+	public void commit() {
+		if (batchDepth == 0) {
+			throw new IllegalStateException("No batch to commit");
+		}
+		batchDepth --;
+		if (batchDepth == 0) {
+			flushBatch();
+		}
+	}
+	
+	/**
+	 * Deliver the changes collected so far in the current batch to the batch
+	 * listeners, leaving the batch open. A token added and removed again 
+	 * within the batch is left out altogether, and a token removed and 
+	 * replaced by another in the same layer of the same square is delivered
+	 * as a single {@link TokenChangeType#REPLACE}.
+	 */
+	public void flushBatch() {
+		if (pendingChanges.isEmpty()) {
+			return;
+		}
+		List<TokenChangeEvent> events = 
+				new ArrayList<TokenChangeEvent>(pendingChanges.size());
+		for (PendingChange c : pendingChanges.values()) {
+			if (c.before == c.after) {
+				continue;
+			} else if (c.before == null) {
+				events.add(new TokenChangeEvent(c.x, c.y, c.after, 
+												TokenChangeType.ADD));
+			} else if (c.after == null) {
+				events.add(new TokenChangeEvent(c.x, c.y, c.before, 
+												TokenChangeType.REMOVE));
+			} else {
+				events.add(new TokenChangeEvent(c.x, c.y, c.after, c.before));
+			}
+		}
+		pendingChanges.clear();
+		if (!events.isEmpty()) {
+			alertBatchListeners(Collections.unmodifiableList(events));
+		}
+	}
+	
+	/**
+	 * Alert the batch listeners to a batch of changes.
+	 * 
+	 * @param events the changes
+	 */
+	private void alertBatchListeners(List<TokenChangeEvent> events) {
+		for (TokenChangeBatchListener l : batchListeners) {
+			l.onTokenChanges(events);
+		}
 	}
 
 	/** 
@@ -511,6 +883,35 @@ public class Board {
 	public void addTokenChangeListener(TokenChangeListener listener) {
 		tokenChangeListeners.add(listener);
 	}
+	
+	/**
+	 * Add a listener to be told about batches of changes to the tokens.
+	 * 
+	 * @param listener the listener
+	 */
+	public void addTokenChangeBatchListener(TokenChangeBatchListener listener) {
+		if (batchListeners == null) {
+			batchListeners = new ArrayList<TokenChangeBatchListener>();
+		}
+		batchListeners.add(listener);
+	}
+	
+	/**
+	 * A change collected during a batch: the token in one layer of a square
+	 * before the batch began, and the token there now.
+	 */
+	private static class PendingChange {
+		private final int x;
+		private final int y;
+		private final Token before;
+		private Token after;
+		
+		PendingChange(int x, int y, Token before) {
+			this.x = x;
+			this.y = y;
+			this.before = before;
+		}
+	}
 
 	/**
 	 * Interface for objects to be informed when the state of the tokens in a
@@ -526,6 +927,23 @@ public class Board {
 		 */
 		public void onTokenChange(TokenChangeEvent e);
 	}
+	
+	/**
+	 * Interface for objects to be informed of changes to the tokens in a 
+	 * Board a batch at a time, rather than one at a time.
+	 *
+	 * @author littlewoo
+	 * @see Board#beginBatch()
+	 */
+	public interface TokenChangeBatchListener {
+		/**
+		 * Method called with each batch of changes to the tokens.
+		 * 
+		 * @param changes the changes, in the order the squares were first 
+		 * 			changed. The list must not be changed.
+		 */
+		public void onTokenChanges(List<TokenChangeEvent> changes);
+	}
 
 	/**
 	 * An event containing information about the change to the tokens on the
@@ -539,6 +957,8 @@ public class Board {
 		private final int y;
 		/** the token affected by the change */
 		private final Token token;
+		/** the token replaced, for a REPLACE change */
+		private final Token replaced;
 		/** the type of change */
 		private final TokenChangeType change;
 
@@ -554,8 +974,25 @@ public class Board {
 			this.x = x;
 			this.y = y;
 			this.token = t;
+			this.replaced = null;
 			this.change = change;
 		}
+		
+		/**
+		 * Make a new event, for one token replacing another.
+		 * 
+		 * @param x the x coordinate
+		 * @param y the y coordinate
+		 * @param t the new token
+		 * @param replaced the token it replaces
+		 */
+		public TokenChangeEvent(int x, int y, Token t, Token replaced) {
+			this.x = x;
+			this.y = y;
+			this.token = t;
+			this.replaced = replaced;
+			this.change = TokenChangeType.REPLACE;
+		}
 
 		/** 
 		 * @return the x coordinate of the change
@@ -578,6 +1015,13 @@ public class Board {
 			return token;
 		}
 
+		/**
+		 * @return the token replaced, for a REPLACE change, or null
+		 */
+		public Token getReplacedToken() {
+			return replaced;
+		}
+
 		/**
 		 * @return the type of change which has occurred
 		 */
@@ -592,7 +1036,7 @@ public class Board {
 	 * @author littlewoo
 	 */
 	public enum TokenChangeType {
-		ADD, REMOVE, MOVE;
+		ADD, REMOVE, MOVE, REPLACE;
 	}
 
 	/** 
@@ -602,7 +1046,18 @@ public class Board {
 	 * @return the POI token at the location, if there is one
 	 */
 	public POIToken getPOITokenAt(Point loc) {
-		return poiLayer.getTokenAt(loc);
+		return getPOITokenAt(loc.x, loc.y);
+	}
+	
+	/** 
+	 * Get the POI token at the given location
+	 * 
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return the POI token at the location, if there is one
+	 */
+	public POIToken getPOITokenAt(int x, int y) {
+		return poiLayer.get(x, y);
 	}
 	
 	/**
@@ -644,7 +1099,7 @@ public class Board {
 	 * @return true if the move was successful
 	 */
 	public boolean movePOIToken(POIToken t, Point loc) {
-		POIToken other = poiLayer.getTokenAt(loc);
+		POIToken other = poiLayer.get(loc.x, loc.y);
 		if (other != null || isFireAt(loc)) {
 			return false;
 		} 
@@ -658,9 +1113,11 @@ public class Board {
 	 * have.
 	 */
 	public void checkRescuedVictims() {
-		for (POIToken t : poiLayer.getAllTokens()) {
-			if (t instanceof VictimPOIToken) {
-				checkRescuedVictim((VictimPOIToken) t);
+		for (int i = poiLayer.nextOccupied(0); i >= 0; 
+				 i = poiLayer.nextOccupied(i + 1)) {
+			POIToken t = poiLayer.get(i);
+			if (t instanceof VictimPOIToken && edges.get(i)) {
+				rescueVictim((VictimPOIToken) t);
 			}
 		}
 	}
@@ -673,7 +1130,7 @@ public class Board {
 	 */
 	public void checkRescuedVictim(VictimPOIToken v) {
 		Point p = tokenLocs.get(v);
-		if (edges.contains(p)) {
+		if (p != null && edges.get(p.x, p.y)) {
 			rescueVictim(v);
 		}
 	}
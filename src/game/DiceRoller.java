@@ -22,15 +22,17 @@ package game;
 
 import interfaces.DiceRollListener;
 import interfaces.ListShuffler;
+import interfaces.RandomSource;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 
 /**
  * Class for performing tasks adding randomness to the game. Principally rolling
- * dice, but also shuffling lists.
+ * dice, but also shuffling lists. The random numbers come from a 
+ * {@link RandomSource}, which can be chosen when the roller is made.
  *
  * @author littlewoo
  *
@@ -38,7 +40,7 @@ import java.util.Random;
 public class DiceRoller implements ListShuffler {
 	
 	/** random number generator used in rolling dice */
-	private Random rand;
+	private final RandomSource rand;
 	private List<DiceRollListener> listeners;
 	
 	/**
@@ -58,10 +60,54 @@ public class DiceRoller implements ListShuffler {
 	 * @param seed the seed to use to initialize this DiceRoller. 
 	 */ 
 	public DiceRoller(long seed) {
-		rand = new Random(seed);
+		this(new JavaRandomSource(seed));
+	}
+	
+	/**
+	 * Create a new DiceRoller, using a given source of random numbers.
+	 * 
+	 * @param source the source of random numbers
+	 */
+	public DiceRoller(RandomSource source) {
+		rand = source;
 		listeners = new ArrayList<DiceRollListener>();
 	}
 	
+	/**
+	 * Make a new DiceRoller whose rolls are unrelated to this one's, for use 
+	 * by another thread or another game. The new roller has no listeners.
+	 * 
+	 * @return the new roller
+	 * @see RandomSource#split()
+	 */
+	public DiceRoller split() {
+		return new DiceRoller(rand.split());
+	}
+	
+	/**
+	 * Roll a single die, of a given number of sides, without alerting the 
+	 * listeners.
+	 * 
+	 * @param sides the number of sides on the die to be rolled
+	 * @return the result, from 1 to the number of sides
+	 */
+	public int roll(int sides) {
+		return rand.nextInt(sides) + 1;
+	}
+	
+	/**
+	 * Roll a number of dice with the same number of sides, without alerting
+	 * the listeners.
+	 * 
+	 * @param sides the number of sides on each die
+	 * @param out the array to fill with the results, one die for each element
+	 */
+	public void rollDice(int sides, int[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = rand.nextInt(sides) + 1;
+		}
+	}
+	
 	/**
 	 * Roll a single die, of a given number of sides.
 	 * 
@@ -70,7 +116,7 @@ public class DiceRoller implements ListShuffler {
 	 * @return a DieResult object containing the result
 	 */
 	public DieResult rollDie(int sides, boolean alert) {
-		DieResult result = new DieResult(sides, rand.nextInt(sides) + 1);
+		DieResult result = new DieResult(sides, roll(sides));
 		if (alert) {
 			alertListeners(result);
 		}
@@ -129,21 +175,18 @@ public class DiceRoller implements ListShuffler {
 	}
 	
 	/**
-	 * Shuffle a list
+	 * Shuffle a list, with the Fisher-Yates shuffle. Every order of the list
+	 * is equally likely.
 	 * 
 	 * @param list the list to be shuffled
 	 * @return a copy of the list, in a shuffled order
 	 */
 	public <T> List<T> shuffle(final List<T> list) {
-		List<T> result = new ArrayList<T>();
-		for (T t : list) {
-			int position = 0;
-			if (result.size() > 0) {
-				position = rand.nextInt(result.size());
-			}
-			result.add(position, t);
-		}		
-		return result;		
+		List<T> result = new ArrayList<T>(list);
+		for (int i = result.size() - 1; i > 0; i--) {
+			Collections.swap(result, i, rand.nextInt(i + 1));
+		}
+		return result;
 	}
 	
 	/**
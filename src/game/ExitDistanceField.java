@@ -0,0 +1,332 @@
+/**
+ *  File name: ExitDistanceField.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game;
+
+import game.action.Action.ActionType;
+
+import java.util.Arrays;
+
+/**
+ * The cost, for each square of a board, of the cheapest way from it to the 
+ * nearest exit (a square on the edge of the board), moving one square at a 
+ * time. Moves cannot pass through walls, and a move costs the AP of the 
+ * action it would be, so moving into fire costs more than an ordinary move.
+ * 
+ * The distances are worked out once, by a search outwards from every exit at
+ * once. After that, the squares whose fire or walls change are only marked, 
+ * and the next time a distance is asked for, only the distances which 
+ * depended on the changed squares are worked out again:
+ * <ol>
+ * <li>Every square whose cheapest path could have gone through a changed 
+ * 		square is marked invalid, following the squares whose distance is 
+ * 		exactly that of a neighbour plus the cost of moving into it.</li>
+ * <li>Each invalid square is given the best distance it can get from a valid
+ * 		neighbour, and any square next to a changed square which could now do
+ * 		better is lowered.</li>
+ * <li>The lowered squares are spread outwards in order of distance, as in
+ * 		the first search.</li>
+ * </ol>
+ *
+ * @author littlewoo
+ */
+public class ExitDistanceField {
+	/** the distance of a square from which no exit can be reached */
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+	
+	/** the board the distances are for */
+	private final Board board;
+	/** the squares adjacent to each square of the board */
+	private final NeighbourTable neighbours;
+	/** the exits */
+	private final BitBoard exits;
+	
+	/** the distance of each square from the nearest exit */
+	private final int[] distances;
+	/** the cost of moving into each square, and the directions in which it 
+	 *  can be left, as they were when the distances were last worked out */
+	private final byte[] costs;
+	private final byte[] passable;
+	
+	/** the squares changed since the distances were last worked out */
+	private final BitBoard changed;
+	private boolean anyChanged;
+	
+	/** working space: the squares whose distances are being worked out 
+	 *  again, as a set and in the order they were found */
+	private final BitBoard invalid;
+	private final int[] invalidList;
+	/** working space: a heap of the squares waiting to be spread from, each 
+	 *  with its distance in the high 32 bits */
+	private long[] heap = new long[64];
+	private int heapSize;
+
+	/**
+	 * Make a new ExitDistanceField, working out the distance of every square.
+	 * 
+	 * @param board the board
+	 * @param exits the squares which count as exits
+	 */
+	public ExitDistanceField(Board board, BitBoard exits) {
+		this.board = board;
+		this.exits = exits;
+		int size = board.getWidth() * board.getHeight();
+		neighbours = NeighbourTable.forSize(board.getWidth(), 
+											board.getHeight());
+		distances = new int[size];
+		costs = new byte[size];
+		passable = new byte[size];
+		changed = new BitBoard(board.getWidth(), board.getHeight());
+		invalid = new BitBoard(board.getWidth(), board.getHeight());
+		invalidList = new int[size];
+		
+		Arrays.fill(distances, UNREACHABLE);
+		for (int i = 0; i < size; i++) {
+			readSquare(i);
+		}
+		for (int i = exits.nextSetBit(0); i >= 0; i = exits.nextSetBit(i + 1)) {
+			distances[i] = 0;
+			push(i, 0);
+		}
+		spread();
+	}
+	
+	/**
+	 * Mark a square whose fire or walls have changed. The distances are worked
+	 * out again the next time one is asked for.
+	 * 
+	 * @param i the index of the square
+	 */
+	public void markChanged(int i) {
+		changed.set(i);
+		anyChanged = true;
+	}
+	
+	/**
+	 * Get the distance from a square to the nearest exit.
+	 * 
+	 * @param i the index of the square
+	 * @return the AP cost of the cheapest way from the square to an exit, or
+	 * 			-1 if no exit can be reached
+	 */
+	public int getDistance(int i) {
+		if (anyChanged) {
+			update();
+		}
+		return distances[i] == UNREACHABLE ? -1 : distances[i];
+	}
+	
+	/**
+	 * Read the cost of moving into a square, and the directions in which it 
+	 * can be left, from the board.
+	 * 
+	 * @param i the index of the square
+	 */
+	private void readSquare(int i) {
+		costs[i] = (byte) (board.isFireAt(i) 
+						   ? ActionType.MOVE_INTO_FIRE.getCost() 
+						   : ActionType.MOVE.getCost());
+		passable[i] = (byte) board.getPassableDirections(i);
+	}
+	
+	/**
+	 * Work out again the distances which depended on the changed squares.
+	 */
+	private void update() {
+		int invalidCount = 0;
+		for (int n = changed.nextSetBit(0); n >= 0; 
+				 n = changed.nextSetBit(n + 1)) {
+			invalidCount = invalidate(n, invalidCount);
+			invalidCount = invalidateDependents(n, invalidCount);
+		}
+		for (int n = changed.nextSetBit(0); n >= 0; 
+				 n = changed.nextSetBit(n + 1)) {
+			readSquare(n);
+		}
+		
+		for (int k = 0; k < invalidCount; k++) {
+			invalidCount = invalidateDependents(invalidList[k], invalidCount);
+		}
+		
+		for (int k = 0; k < invalidCount; k++) {
+			distances[invalidList[k]] = UNREACHABLE;
+		}
+		for (int k = 0; k < invalidCount; k++) {
+			int u = invalidList[k];
+			int best = UNREACHABLE;
+			for (int d = 0; d < NeighbourTable.DIRECTION_COUNT; d++) {
+				if ((passable[u] & (1 << d)) != 0) {
+					int v = neighbours.getNeighbour(u, d);
+					if (distances[v] != UNREACHABLE && 
+						distances[v] + costs[v] < best) {
+						best = distances[v] + costs[v];
+					}
+				}
+			}
+			if (best != UNREACHABLE) {
+				distances[u] = best;
+				push(u, best);
+			}
+			invalid.clear(u);
+		}
+		for (int n = changed.nextSetBit(0); n >= 0; 
+				 n = changed.nextSetBit(n + 1)) {
+			if (distances[n] != UNREACHABLE) {
+				lowerNeighbours(n, distances[n] + costs[n]);
+			}
+		}
+		changed.clear();
+		anyChanged = false;
+		spread();
+	}
+	
+	/**
+	 * Mark invalid each neighbour of a square whose distance could have come 
+	 * from moving into the square, i.e. it can be left into the square and 
+	 * its distance is exactly that of the square plus the cost of moving in.
+	 * 
+	 * @param u the index of the square
+	 * @param invalidCount the number of squares marked invalid so far
+	 * @return the number of squares marked invalid afterwards
+	 */
+	private int invalidateDependents(int u, int invalidCount) {
+		if (distances[u] == UNREACHABLE) {
+			return invalidCount;
+		}
+		int dist = distances[u] + costs[u];
+		for (int d = 0; d < NeighbourTable.DIRECTION_COUNT; d++) {
+			int w = neighbours.getNeighbour(u, d);
+			if (w >= 0 && (passable[w] & (1 << opposite(d))) != 0 && 
+				distances[w] == dist) {
+				invalidCount = invalidate(w, invalidCount);
+			}
+		}
+		return invalidCount;
+	}
+	
+	/**
+	 * Get the opposite of a direction. The indices of opposite directions 
+	 * (see {@link Walls.Direction}) differ only in their lowest bit.
+	 * 
+	 * @param d the index of a direction
+	 * @return the index of the opposite direction
+	 */
+	private static int opposite(int d) {
+		return d ^ 1;
+	}
+	
+	/**
+	 * Mark a square invalid, unless it is an exit or is already invalid.
+	 * 
+	 * @param i the index of the square
+	 * @param invalidCount the number of squares marked invalid so far
+	 * @return the number of squares marked invalid afterwards
+	 */
+	private int invalidate(int i, int invalidCount) {
+		if (!exits.get(i) && !invalid.get(i)) {
+			invalid.set(i);
+			invalidList[invalidCount++] = i;
+		}
+		return invalidCount;
+	}
+	
+	/**
+	 * Spread the distances outwards from the squares on the heap, in order of
+	 * distance, until every square has its lowest distance.
+	 */
+	private void spread() {
+		while (heapSize > 0) {
+			long top = pop();
+			int u = (int) top;
+			int dist = (int) (top >>> 32);
+			if (dist == distances[u]) {
+				lowerNeighbours(u, dist + costs[u]);
+			}
+		}
+	}
+	
+	/**
+	 * Lower the distance of each neighbour of a square which can be left 
+	 * into it, to the distance got by moving into the square.
+	 * 
+	 * @param u the index of the square
+	 * @param dist the distance of the neighbours by way of the square
+	 */
+	private void lowerNeighbours(int u, int dist) {
+		for (int d = 0; d < NeighbourTable.DIRECTION_COUNT; d++) {
+			int w = neighbours.getNeighbour(u, d);
+			if (w >= 0 && (passable[w] & (1 << opposite(d))) != 0 && 
+				dist < distances[w]) {
+				distances[w] = dist;
+				push(w, dist);
+			}
+		}
+	}
+	
+	/**
+	 * Add a square to the heap.
+	 * 
+	 * @param i the index of the square
+	 * @param dist the distance of the square
+	 */
+	private void push(int i, int dist) {
+		if (heapSize == heap.length) {
+			heap = Arrays.copyOf(heap, heapSize * 2);
+		}
+		long entry = ((long) dist << 32) | i;
+		int k = heapSize++;
+		while (k > 0) {
+			int parent = (k - 1) >>> 1;
+			if (heap[parent] <= entry) {
+				break;
+			}
+			heap[k] = heap[parent];
+			k = parent;
+		}
+		heap[k] = entry;
+	}
+	
+	/**
+	 * Take the entry with the lowest distance off the heap.
+	 * 
+	 * @return the entry
+	 */
+	private long pop() {
+		long top = heap[0];
+		long last = heap[--heapSize];
+		int k = 0;
+		while (true) {
+			int child = 2 * k + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+				child++;
+			}
+			if (heap[child] >= last) {
+				break;
+			}
+			heap[k] = heap[child];
+			k = child;
+		}
+		heap[k] = last;
+		return top;
+	}
+}
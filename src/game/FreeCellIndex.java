@@ -0,0 +1,106 @@
+/**
+ *  File name: FreeCellIndex.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game;
+
+/**
+ * The free squares of a {@link TokenLayer}, kept in a dense array so that the
+ * number of free squares, and the k-th free square, can be found at once. 
+ * Squares are added and removed by swapping with the last free square, so the
+ * squares are in no particular order, and every operation takes constant 
+ * time.
+ *
+ * @author littlewoo
+ */
+public class FreeCellIndex {
+	/** the free squares; only the first {@link #size} are used */
+	private final int[] cells;
+	/** for each square, its position in {@link #cells}, or -1 if not free */
+	private final int[] positions;
+	/** the number of free squares */
+	private int size;
+	
+	/**
+	 * Make a new FreeCellIndex, with no free squares.
+	 * 
+	 * @param squares the number of squares on the board
+	 */
+	public FreeCellIndex(int squares) {
+		cells = new int[squares];
+		positions = new int[squares];
+		for (int i = 0; i < squares; i++) {
+			positions[i] = -1;
+		}
+	}
+	
+	/**
+	 * @return the number of free squares
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * @param i the index of a square
+	 * @return true if the square is free
+	 */
+	public boolean contains(int i) {
+		return positions[i] >= 0;
+	}
+	
+	/**
+	 * Get one of the free squares. The order of the squares changes as squares
+	 * are added and removed.
+	 * 
+	 * @param k the position of the square, from 0 up to but not including 
+	 * 			{@link #size()}
+	 * @return the index of the square
+	 */
+	public int get(int k) {
+		return cells[k];
+	}
+	
+	/**
+	 * Mark a square as free. Does nothing if it is already free.
+	 * 
+	 * @param i the index of the square
+	 */
+	void add(int i) {
+		if (positions[i] < 0) {
+			positions[i] = size;
+			cells[size++] = i;
+		}
+	}
+	
+	/**
+	 * Mark a square as not free. Does nothing if it is not free.
+	 * 
+	 * @param i the index of the square
+	 */
+	void remove(int i) {
+		int p = positions[i];
+		if (p >= 0) {
+			int last = cells[--size];
+			cells[p] = last;
+			positions[last] = p;
+			positions[i] = -1;
+		}
+	}
+}
@@ -20,13 +20,13 @@
  */
 package game;
 
+import game.Board.TokenChangeBatchListener;
 import game.Board.TokenChangeListener;
 import game.DiceRoller.DieResult;
 import game.action.Action;
+import game.action.Action.ActionType;
 import game.action.ActionCollection;
-import game.action.MoveAction;
-import game.action.MoveIntoFireAction;
-import game.action.MoveWithVictimAction;
+import game.action.PathMoveAction;
 import game.token.BlankPOIToken;
 import game.token.POIFaceToken;
 import game.token.POIQuestionMarkToken;
@@ -34,20 +34,21 @@ import game.token.POIToken;
 import game.token.PlayerToken;
 import game.token.VictimPOIToken;
 import interfaces.APListener;
+import interfaces.ActionPerformedListener;
 import interfaces.ActionPerformer;
 import interfaces.ActionView;
 import interfaces.DiceRollListener;
 import interfaces.POIEventListener;
+import interfaces.RandomSource;
 import interfaces.TurnPhaseListener;
 import interfaces.TurnPhaseListener.TurnPhase;
 import interfaces.TurnTaker;
+import interfaces.WallProvider;
 
 import java.awt.Point;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-
-import ui.playersDialog.PlayerInputData;
 
 /**
  * The internal workings of the game.
@@ -55,11 +56,6 @@ import ui.playersDialog.PlayerInputData;
  * @author littlewoo
  */
 public class Game implements TurnTaker, ActionPerformer {
-	/** the width of the game board */
-	public static final int WIDTH = 10;
-	/** the height of the game board */
-	public static final int HEIGHT = 8;
-	
 	/** if this is true, newly placed POIs replace fire. If not, they cannot
 	 *  be placed on fire. */
 	private static final boolean POI_REPLACES_FIRE = true;
@@ -76,11 +72,20 @@ public class Game implements TurnTaker, ActionPerformer {
 	private int currentPlayerIndex;
 	/** all the players in the game */
 	private List<Player> players;
+	/** the data the players were made from */
+	private final List<PlayerInputData> playerData;
 	
 	/** the board on which the action is happening */
 	private Board board;
+	/** the walls of the board, which also give its size */
+	private final Walls walls;
+	/** the squares adjacent to each square of the board */
+	private final NeighbourTable neighbours;
 	/** the source of dice rolls */
 	private DiceRoller diceRoller;
+	/** the seed of the dice roller, or null if the game was made from a 
+	 *  source of random numbers instead */
+	private final Long seed;
 	
 	/** listeners for turn phases */
 	private List<TurnPhaseListener> turnPhaseListeners;
@@ -88,14 +93,100 @@ public class Game implements TurnTaker, ActionPerformer {
 	/** action views, for displaying possible actions */
 	private List<ActionView> actionViews;
 	
+	/** listeners for actions performed */
+	private List<ActionPerformedListener> actionPerformedListeners;
+	
+	/** the actions last worked out, or null if there are none yet */
+	private ActionCollection cachedActions;
+	/** the player, square, AP and neighbourhood version the cached actions 
+	 *  were worked out for */
+	private Player cachedPlayer;
+	private int cachedSquare;
+	private int cachedAp;
+	private int cachedVersion;
+	
+	/** the moves of more than one square last worked out, or null if there
+	 *  are none yet. Paths can reach well beyond the player's neighbourhood,
+	 *  so they are kept against the version of the whole board. */
+	private List<PathMoveAction> cachedPathActions;
+	/** the player, square, AP and board version the cached moves were worked
+	 *  out for */
+	private Player cachedPathPlayer;
+	private int cachedPathSquare;
+	private int cachedPathAp;
+	private int cachedPathVersion;
+	/** the actions last given to the action views, and the actions and 
+	 *  moves they were made from */
+	private ActionCollection cachedViewActions;
+	private ActionCollection cachedViewBase;
+	private List<PathMoveAction> cachedViewPaths;
+	
+	/** the planner for moves of more than one square, made when first 
+	 *  needed */
+	private MovePlanner planner;
+	
 	/**
 	 * Construct a new game
 	 * @param data the players to be introduced into the game
 	 */
 	public Game(List<PlayerInputData> data) {
-		createPlayers(data);		
-		board = new Board(WIDTH, HEIGHT);
-		diceRoller = new DiceRoller();
+		this(data, System.currentTimeMillis());
+	}
+	
+	/**
+	 * Construct a new game, whose dice rolls are determined by a given seed.
+	 * 
+	 * @param data the players to be introduced into the game
+	 * @param seed the seed for the game's dice roller
+	 */
+	public Game(List<PlayerInputData> data, long seed) {
+		this(data, seed, new WallCreator());
+	}
+	
+	/**
+	 * Construct a new game, whose dice rolls are determined by a given seed, 
+	 * on a board of any size. The size of the board is taken from the walls.
+	 * 
+	 * @param data the players to be introduced into the game
+	 * @param seed the seed for the game's dice roller
+	 * @param wallProvider the source of the walls for the board
+	 */
+	public Game(List<PlayerInputData> data, long seed, 
+				WallProvider wallProvider) {
+		this(data, new DiceRoller(seed), Long.valueOf(seed), wallProvider);
+	}
+	
+	/**
+	 * Construct a new game, whose dice rolls come from a given source of 
+	 * random numbers, on a board of any size. A game made like this has no
+	 * seed, and so cannot be recorded for replaying.
+	 * 
+	 * @param data the players to be introduced into the game
+	 * @param source the source of random numbers for the game's dice roller
+	 * @param wallProvider the source of the walls for the board
+	 */
+	public Game(List<PlayerInputData> data, RandomSource source,
+				WallProvider wallProvider) {
+		this(data, new DiceRoller(source), null, wallProvider);
+	}
+	
+	/**
+	 * Construct a new game
+	 * 
+	 * @param data the players to be introduced into the game
+	 * @param roller the source of dice rolls for the game
+	 * @param seed the seed of the dice roller, or null if it has none
+	 * @param wallProvider the source of the walls for the board
+	 */
+	private Game(List<PlayerInputData> data, DiceRoller roller, Long seed,
+				 WallProvider wallProvider) {
+		createPlayers(data);
+		playerData = new ArrayList<PlayerInputData>(data);
+		walls = wallProvider.getWalls();
+		board = new Board(walls.getWidth(), walls.getHeight());
+		neighbours = NeighbourTable.forSize(walls.getWidth(), walls.getHeight());
+		this.seed = seed;
+		diceRoller = roller;
 		poiTokenManager = 
 				new POITokenManager(POI_REPLACES_FIRE, POI_VICTIM_COUNT,
 									POI_BLANK_COUNT, board, diceRoller);
@@ -103,6 +194,203 @@ public class Game implements TurnTaker, ActionPerformer {
 		addTurnPhaseListener(poiTokenManager);
 	}
 	
+	/**
+	 * Create a game to be played without a user interface. The walls, players
+	 * and initial POI tokens are all placed, so the game is ready for the first
+	 * player to act. No user interface classes are loaded by the game, so it 
+	 * can be run on a headless machine.
+	 * 
+	 * @param seed the seed for the game's dice roller
+	 * @param players the players to be introduced into the game
+	 * @return the new game
+	 */
+	public static Game newHeadless(long seed, List<PlayerInputData> players) {
+		return newHeadless(seed, players, new WallCreator());
+	}
+	
+	/**
+	 * Create a game to be played without a user interface, on a board whose 
+	 * size and walls are given by a wall provider. 
+	 * 
+	 * @param seed the seed for the game's dice roller
+	 * @param players the players to be introduced into the game
+	 * @param wallProvider the source of the walls for the board
+	 * @return the new game
+	 * @see #newHeadless(long, List)
+	 */
+	public static Game newHeadless(long seed, List<PlayerInputData> players,
+								   WallProvider wallProvider) {
+		return newHeadless(seed, players, wallProvider, PlacementPolicy.DICE);
+	}
+	
+	/**
+	 * Create a game to be played without a user interface, on a board whose 
+	 * size and walls are given by a wall provider, whose tokens are placed 
+	 * with a given policy.
+	 * 
+	 * @param seed the seed for the game's dice roller
+	 * @param players the players to be introduced into the game
+	 * @param wallProvider the source of the walls for the board
+	 * @param policy the way squares are chosen to place tokens on
+	 * @return the new game
+	 * @see #newHeadless(long, List)
+	 */
+	public static Game newHeadless(long seed, List<PlayerInputData> players,
+								   WallProvider wallProvider,
+								   PlacementPolicy policy) {
+		Game game = new Game(players, seed, wallProvider);
+		game.setPlacementPolicy(policy);
+		return setUpHeadless(game);
+	}
+	
+	/**
+	 * Create a game to be played without a user interface, whose dice rolls
+	 * come from a given source of random numbers.
+	 * 
+	 * @param source the source of random numbers for the game's dice roller
+	 * @param players the players to be introduced into the game
+	 * @param wallProvider the source of the walls for the board
+	 * @return the new game
+	 * @see #newHeadless(long, List)
+	 */
+	public static Game newHeadless(RandomSource source, 
+								   List<PlayerInputData> players,
+								   WallProvider wallProvider) {
+		return newHeadless(source, players, wallProvider, 
+						   PlacementPolicy.DICE);
+	}
+	
+	/**
+	 * Create a game to be played without a user interface, whose dice rolls
+	 * come from a given source of random numbers, and whose tokens are placed
+	 * with a given policy.
+	 * 
+	 * @param source the source of random numbers for the game's dice roller
+	 * @param players the players to be introduced into the game
+	 * @param wallProvider the source of the walls for the board
+	 * @param policy the way squares are chosen to place tokens on
+	 * @return the new game
+	 * @see #newHeadless(long, List)
+	 */
+	public static Game newHeadless(RandomSource source, 
+								   List<PlayerInputData> players,
+								   WallProvider wallProvider,
+								   PlacementPolicy policy) {
+		Game game = new Game(players, source, wallProvider);
+		game.setPlacementPolicy(policy);
+		return setUpHeadless(game);
+	}
+	
+	/**
+	 * Place the walls, players and initial POI tokens of a headless game.
+	 * 
+	 * @param game the game
+	 * @return the game
+	 */
+	private static Game setUpHeadless(Game game) {
+		game.placeWalls();
+		game.placePlayers();
+		game.placeInitialPOITokens();
+		return game;
+	}
+	
+	/**
+	 * @return the width of the board, in squares
+	 */
+	public int getWidth() {
+		return board.getWidth();
+	}
+	
+	/**
+	 * @return the height of the board, in squares
+	 */
+	public int getHeight() {
+		return board.getHeight();
+	}
+	
+	/**
+	 * @return the seed of the game's dice roller
+	 * @throws IllegalStateException if the game was made from a source of 
+	 * 			random numbers rather than a seed
+	 */
+	public long getSeed() {
+		if (seed == null) {
+			throw new IllegalStateException("The game has no seed");
+		}
+		return seed;
+	}
+	
+	/**
+	 * @return the walls of the board
+	 */
+	public Walls getWalls() {
+		return walls;
+	}
+	
+	/**
+	 * @return the data the players were made from, in order of play
+	 */
+	public List<PlayerInputData> getPlayerData() {
+		return Collections.unmodifiableList(playerData);
+	}
+	
+	/**
+	 * @return the board the game is played on
+	 */
+	Board getBoard() {
+		return board;
+	}
+	
+	/**
+	 * @return the number of victims among the POI tokens
+	 */
+	public int getVictimCount() {
+		return POI_VICTIM_COUNT;
+	}
+	
+	/**
+	 * @return the number of squares with fire on them
+	 */
+	public int getFireCount() {
+		return board.getFireCount();
+	}
+	
+	/**
+	 * @return the number of explosions there have been so far in the game
+	 */
+	public int getExplosionCount() {
+		return board.getExplosionCount();
+	}
+	
+	/**
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return the AP cost of the cheapest way from a square to the edge of the
+	 * 			board, or -1 if the edge cannot be reached
+	 * @see Board#getExitDistance(int, int)
+	 */
+	public int getExitDistance(int x, int y) {
+		return board.getExitDistance(x, y);
+	}
+	
+	/**
+	 * Set the way in which squares are chosen to place players and POI tokens
+	 * on. This should be set before the players are placed.
+	 * 
+	 * @param policy the policy
+	 */
+	public void setPlacementPolicy(PlacementPolicy policy) {
+		board.setPlacementPolicy(policy);
+	}
+	
+	/**
+	 * @return the way in which squares are chosen to place players and POI 
+	 * 			tokens on
+	 */
+	public PlacementPolicy getPlacementPolicy() {
+		return board.getPlacementPolicy();
+	}
+	
 	/**
 	 * Create the player tokens from the input data. The first player is
 	 * selected, as the first in the input list.
@@ -138,9 +426,14 @@ public class Game implements TurnTaker, ActionPerformer {
 	 * Place the player tokens on the board. 
 	 */
 	public void placePlayers() {
-		for (Player p : players) {
-			PlayerToken t = p.getToken();
-			placePlayerTokenRandomly(t);
+		board.beginBatch();
+		try {
+			for (Player p : players) {
+				PlayerToken t = p.getToken();
+				placePlayerTokenRandomly(t);
+			}
+		} finally {
+			board.commit();
 		}
 		players.get(0).newTurn();
 	}
@@ -151,12 +444,12 @@ public class Game implements TurnTaker, ActionPerformer {
 	 * @param t the token to be placed
 	 */
 	private void placePlayerTokenRandomly(PlayerToken t) {
-		boolean success = false;
-		while (!success) {
-			int x = diceRoller.rollDie(8, false).roll;
-			int y = diceRoller.rollDie(6, false).roll;
-			success = board.addPlayerToken(x, y, t);
+		Point p = board.choosePlayerSquare(diceRoller);
+		if (p == null) {
+			throw new IllegalStateException("No room on the board for " + 
+											t.getName());
 		}
+		board.addPlayerToken(p.x, p.y, t);
 	}
 	
 	/**
@@ -170,15 +463,27 @@ public class Game implements TurnTaker, ActionPerformer {
 	 * Place the POI tokens on the board
 	 */
 	public void placeInitialPOITokens() {
-		poiTokenManager.placeInitialTokens(INITIAL_POI_COUNT);
+		board.beginBatch();
+		try {
+			poiTokenManager.placeInitialTokens(INITIAL_POI_COUNT);
+		} finally {
+			board.commit();
+		}
 	}
 	/**
-	 * Respond to a signal to end the current player's turn
+	 * Respond to a signal to end the current player's turn. The changes to 
+	 * the tokens are delivered to batch listeners once for each phase of the
+	 * turn.
 	 */
 	@Override
 	public void onEndTurn() {
-		board.checkRescuedVictims();
-		advanceFire();
+		board.beginBatch();
+		try {
+			board.checkRescuedVictims();
+			advanceFire();
+		} finally {
+			board.commit();
+		}
 		currentPlayerIndex ++;
 		currentPlayerIndex = currentPlayerIndex % players.size();
 		getCurrentPlayer().newTurn();
@@ -187,14 +492,15 @@ public class Game implements TurnTaker, ActionPerformer {
 	
 	/** 
 	 * Perform the advance fire stage of a turn. Rolls the dice, and advances
-	 * fire on the indicated space.
+	 * fire on the indicated space. The dice have as many sides as the board 
+	 * has squares inside its edge in each direction.
 	 * 
 	 * @see Board#advanceFire(int, int)
 	 */
 	private void advanceFire() {
 		alertTurnPhaseListeners(TurnPhase.ADVANCE_FIRE);
-		int x = rollDie(8);
-		int y = rollDie(6);
+		int x = rollDie(board.getWidth() - 2);
+		int y = rollDie(board.getHeight() - 2);
 		board.advanceFire(x, y);
 		alertTurnPhaseListeners(TurnPhase.SMOKE_TO_FIRE);
 		board.smokeIntoFire();
@@ -224,6 +530,16 @@ public class Game implements TurnTaker, ActionPerformer {
 		board.addTokenChangeListener(listener);
 	}
 	
+	/** 
+	 * Add a listener to be told about changes to tokens a batch at a time
+	 * 
+	 * @param listener the listener
+	 * @see Board#beginBatch()
+	 */
+	public void addTokenChangeBatchListener(TokenChangeBatchListener listener) {
+		board.addTokenChangeBatchListener(listener);
+	}
+	
 	/**
 	 * Add a dice roll listener
 	 * 
@@ -257,11 +573,13 @@ public class Game implements TurnTaker, ActionPerformer {
 	}
 	
 	/**
-	 * Alert turn phase listeners of a change in turn phase
+	 * Alert turn phase listeners of a change in turn phase. Any changes to the
+	 * tokens made in the previous phase are delivered first.
 	 * 
 	 * @param phase the new turn phase
 	 */
 	private void alertTurnPhaseListeners(TurnPhase phase) {
+		board.flushBatch();
 		if (turnPhaseListeners != null) {
 			for (TurnPhaseListener l : turnPhaseListeners) {
 				l.onTurnPhaseChange(phase);
@@ -283,12 +601,60 @@ public class Game implements TurnTaker, ActionPerformer {
 	}
 	
 	/**
-	 * Alert the action views with an updated set of actions
+	 * Alert the action views with an updated set of actions, including the
+	 * moves of more than one square.
 	 */
 	public void alertActionViews() {
+		if (actionViews != null) {
+			ActionCollection actions = getViewActions();
+			for (ActionView v : actionViews) {
+				v.displayActions(actions);
+			}
+		}
+	}
+	
+	/**
+	 * Get the actions for the action views: the current player's actions, 
+	 * with their moves of more than one square added. The collection is kept
+	 * and given again until either the actions or the moves change.
+	 * 
+	 * @return the actions
+	 */
+	private ActionCollection getViewActions() {
 		ActionCollection actions = getActions();
-		for (ActionView v : actionViews) {
-			v.displayActions(actions);
+		List<PathMoveAction> paths = getPathActions();
+		if (cachedViewActions == null || actions != cachedViewBase || 
+			paths != cachedViewPaths) {
+			cachedViewActions = actions.withPathActions(paths);
+			cachedViewBase = actions;
+			cachedViewPaths = paths;
+		}
+		return cachedViewActions;
+	}
+	
+	/**
+	 * Add a listener for actions performed
+	 * 
+	 * @param listener the listener
+	 */
+	public void addActionPerformedListener(ActionPerformedListener listener) {
+		if (actionPerformedListeners == null) {
+			actionPerformedListeners = new ArrayList<ActionPerformedListener>();
+		}
+		actionPerformedListeners.add(listener);
+	}
+	
+	/**
+	 * Alert the action performed listeners of an action. Only actions which
+	 * were performed successfully are passed on.
+	 * 
+	 * @param action the action which has been performed
+	 */
+	private void alertActionPerformedListeners(Action action) {
+		if (actionPerformedListeners != null) {
+			for (ActionPerformedListener l : actionPerformedListeners) {
+				l.onActionPerformed(action);
+			}
 		}
 	}
 	
@@ -305,42 +671,164 @@ public class Game implements TurnTaker, ActionPerformer {
 	 * Place the walls on the board
 	 */
 	public void placeWalls() {
-		Walls w = new WallCreator().getWalls();
-		board.addWalls(w);
+		board.beginBatch();
+		try {
+			board.addWalls(walls);
+		} finally {
+			board.commit();
+		}
 	}
 
 	/** 
-	 * @return a list of actions 
+	 * Get the actions currently available to the current player. The actions
+	 * depend only on the player's square, their AP and the tokens on and next
+	 * to that square, so they are kept and given again until one of those 
+	 * changes.
+	 * 
+	 * @return the actions currently available to the current player
 	 */
-	private ActionCollection getActions() {
-		List<Action> result = new ArrayList<Action>();
+	public ActionCollection getActions() {
 		Player player = getCurrentPlayer();
 		PlayerToken t = player.getToken();
-		Set<Point> possMoves = board.getPossibleMoves(t);
-		VictimPOIToken victim = board.getVictimAtPlayer(t);
-		for (Point p : possMoves) {
-			if (board.isFireAt(p)) {
-				addAction(result, new MoveIntoFireAction(player, p));
-			} else {
-				addAction(result, new MoveAction(player, p));
-				if (victim != null) {
-					addAction(result, new MoveWithVictimAction(player, p, victim));
+		int square = board.getSquare(t);
+		int version = square < 0 ? -1 : board.getNeighbourhoodVersion(square);
+		if (cachedActions != null && player == cachedPlayer && 
+			square == cachedSquare && player.getAp() == cachedAp && 
+			version == cachedVersion) {
+			return cachedActions;
+		}
+		cachedActions = findActions(player);
+		cachedPlayer = player;
+		cachedSquare = square;
+		cachedAp = player.getAp();
+		cachedVersion = version;
+		return cachedActions;
+	}
+	
+	/**
+	 * Work out the actions available to a player, without using the actions
+	 * kept by {@link #getActions()}.
+	 * 
+	 * @param player the player
+	 * @return the actions available
+	 */
+	ActionCollection findActions(Player player) {
+		PlayerToken t = player.getToken();
+		int dirs = board.getMoveDirections(t);
+		int[] codes = new int[NeighbourTable.DIRECTION_COUNT * 2];
+		int count = 0;
+		VictimPOIToken victim = null;
+		if (dirs != 0) {
+			int square = board.getSquare(t);
+			victim = board.getVictimAtPlayer(t);
+			for (int d = 0; d < NeighbourTable.DIRECTION_COUNT; d++) {
+				if ((dirs & (1 << d)) == 0) {
+					continue;
+				}
+				int n = neighbours.getNeighbour(square, d);
+				if (board.isFireAt(n)) {
+					count = addAction(codes, count, player, 
+									  ActionType.MOVE_INTO_FIRE, n);
+				} else {
+					count = addAction(codes, count, player, 
+									  ActionType.MOVE, n);
+					if (victim != null) {
+						count = addAction(codes, count, player, 
+										  ActionType.MOVE_WITH_VICTIM, n);
+					}
 				}
 			}
 		}
-		return new ActionCollection(result);
+		return new ActionCollection(getWidth(), player, victim, codes, count);
 	}
 	
 	/**
-	 * Check whether an action is valid, and if it is, add it to a list.
+	 * Get the moves of more than one square which the current player can
+	 * afford, each along the cheapest path to the square it ends on. If there
+	 * is a victim on the player's square, the moves carrying the victim are
+	 * included as well as those leaving it behind. The moves are kept and 
+	 * given again until the player, their square, their AP or any token on 
+	 * the board changes.
 	 * 
-	 * @param actionList the list of actions
-	 * @param action the action to be added
+	 * @return the moves, in order of cost, as a list which cannot be changed
 	 */
-	private void addAction(List<Action> actionList, Action action) {
-		if (getCurrentPlayer().canPerformAction(action)) {
-			actionList.add(action);
+	public List<PathMoveAction> getPathActions() {
+		Player player = getCurrentPlayer();
+		int square = board.getSquare(player.getToken());
+		int version = board.getVersion();
+		if (cachedPathActions != null && player == cachedPathPlayer && 
+			square == cachedPathSquare && player.getAp() == cachedPathAp && 
+			version == cachedPathVersion) {
+			return cachedPathActions;
 		}
+		cachedPathActions = 
+				Collections.unmodifiableList(findPathActions(player));
+		cachedPathPlayer = player;
+		cachedPathSquare = square;
+		cachedPathAp = player.getAp();
+		cachedPathVersion = version;
+		return cachedPathActions;
+	}
+	
+	/**
+	 * Work out the moves of more than one square which a player can afford,
+	 * without using the moves kept by {@link #getPathActions()}.
+	 * 
+	 * @param player the player
+	 * @return the moves, in order of cost
+	 */
+	List<PathMoveAction> findPathActions(Player player) {
+		List<PathMoveAction> result = new ArrayList<PathMoveAction>();
+		PlayerToken t = player.getToken();
+		if (board.getSquare(t) < 0) {
+			return result;
+		}
+		if (planner == null) {
+			planner = new MovePlanner(board);
+		}
+		addPathActions(result, player, null);
+		VictimPOIToken victim = board.getVictimAtPlayer(t);
+		if (victim != null) {
+			addPathActions(result, player, victim);
+		}
+		return result;
+	}
+	
+	/**
+	 * Plan a player's moves, and add those of more than one square to a list.
+	 * 
+	 * @param result the list
+	 * @param player the player
+	 * @param victim the victim the player carries, or null if they do not
+	 */
+	private void addPathActions(List<PathMoveAction> result, Player player, 
+								VictimPOIToken victim) {
+		int count = planner.plan(player, victim);
+		for (int k = 0; k < count; k++) {
+			int square = planner.getReached(k);
+			if (planner.getPath(square).length > 1) {
+				result.add(planner.makePathAction(square));
+			}
+		}
+	}
+	
+	/**
+	 * Check whether an action is valid, and if it is, add its code to an 
+	 * array.
+	 * 
+	 * @param codes the codes of the actions
+	 * @param count the number of codes in the array
+	 * @param player the player who would perform the action
+	 * @param type the type of the action
+	 * @param square the index of the square the action targets
+	 * @return the number of codes in the array afterwards
+	 */
+	private int addAction(int[] codes, int count, Player player, 
+						  ActionType type, int square) {
+		if (player.canPerformAction(type)) {
+			codes[count++] = ActionCollection.encode(type, square);
+		}
+		return count;
 	}
 	
 	/**
@@ -375,12 +863,90 @@ public class Game implements TurnTaker, ActionPerformer {
 		return board.movePOIToken(victim, loc);
 	}
 
+	/**
+	 * Check whether a player could make a series of single square moves. Each
+	 * move must be to a neighbouring square with no wall or player in the way,
+	 * and must be of the right type for the square: into fire only if there
+	 * is fire there, and with a victim only if the player has one and there 
+	 * is no fire or other POI token there. Only the last move may be onto a
+	 * POI token which has not been turned over.
+	 * 
+	 * @see interfaces.ActionPerformer#canMoveAlong(game.Player, java.util.List)
+	 */
+	@Override
+	public boolean canMoveAlong(Player p, List<Action> steps) {
+		int square = board.getSquare(p.getToken());
+		if (square < 0) {
+			return false;
+		}
+		VictimPOIToken victim = board.getVictimAtPlayer(p.getToken());
+		for (int k = 0; k < steps.size(); k++) {
+			Action step = steps.get(k);
+			int next = getStepSquare(square, step.getLoc());
+			if (next < 0 || board.isPlayerAt(next) || 
+				(k < steps.size() - 1 && board.isHiddenPOIAt(next))) {
+				return false;
+			}
+			boolean fire = board.isFireAt(next);
+			switch (step.getType()) {
+				case MOVE:
+					if (fire) {
+						return false;
+					}
+					break;
+				case MOVE_INTO_FIRE:
+					if (!fire) {
+						return false;
+					}
+					break;
+				case MOVE_WITH_VICTIM:
+					if (fire || victim == null || board.isPOIAt(next)) {
+						return false;
+					}
+					break;
+				default:
+					return false;
+			}
+			square = next;
+		}
+		return true;
+	}
+	
+	/**
+	 * Get the square a single square move from a given square would end on.
+	 * 
+	 * @param square the index of the square moved from
+	 * @param loc the location moved to
+	 * @return the index of the square moved to, or -1 if it is not a 
+	 * 			neighbour with no wall in between
+	 */
+	private int getStepSquare(int square, Point loc) {
+		int dirs = board.getPassableDirections(square);
+		for (int d = 0; d < NeighbourTable.DIRECTION_COUNT; d++) {
+			int n = neighbours.getNeighbour(square, d);
+			if ((dirs & (1 << d)) != 0 && 
+				n % getWidth() == loc.x && n / getWidth() == loc.y) {
+				return n;
+			}
+		}
+		return -1;
+	}
+
 	/* (non-Javadoc)
 	 * @see interfaces.ActionPerformer#performAction(game.Action)
 	 */
 	@Override
 	public boolean performAction(Action action) {
-		boolean val = action.performAction(this);
+		boolean val;
+		board.beginBatch();
+		try {
+			val = action.performAction(this);
+		} finally {
+			board.commit();
+		}
+		if (val) {
+			alertActionPerformedListeners(action);
+		}
 		alertActionViews();
 		return val;
 	}
@@ -0,0 +1,126 @@
+/**
+ *  File name: GeneratedWallCreator.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game;
+
+import game.Walls.Direction;
+import interfaces.WallProvider;
+
+import java.util.Random;
+
+/**
+ * Class for making the walls of a board of any size, without needing a board
+ * file. The walls make a building filling everything inside the edge of the 
+ * board, divided into square rooms. Each length of wall along the side of a
+ * room has one doorway in it, placed at random, so every room can be reached
+ * and there are ways out of the building on every side. 
+ *
+ * @author littlewoo
+ */
+public class GeneratedWallCreator implements WallProvider {
+	/** the dimensions of the board, including the edge */
+	private final int width;
+	private final int height;
+	/** the length of the side of a room */
+	private final int roomSize;
+	/** the seed for placing the doorways */
+	private final long seed;
+	
+	/**
+	 * Make a new GeneratedWallCreator. The same arguments always give the 
+	 * same walls.
+	 * 
+	 * @param width the width of the board, including the edge
+	 * @param height the height of the board, including the edge
+	 * @param roomSize the length of the side of a room
+	 * @param seed the seed for placing the doorways
+	 */
+	public GeneratedWallCreator(int width, int height, int roomSize, 
+								long seed) {
+		if (width < 3 || height < 3 || roomSize < 1) {
+			throw new IllegalArgumentException("Cannot make a " + width + "x" 
+					+ height + " board with rooms of size " + roomSize);
+		}
+		this.width = width;
+		this.height = height;
+		this.roomSize = roomSize;
+		this.seed = seed;
+	}
+	
+	/* (non-Javadoc)
+	 * @see interfaces.WallProvider#getWalls()
+	 */
+	@Override
+	public Walls getWalls() {
+		Walls walls = new Walls(width, height);
+		Random rand = new Random(seed);
+		for (int x = 1; x < width - 1; x += roomSize) {
+			addVerticalWalls(walls, x, rand);
+		}
+		addVerticalWalls(walls, width - 1, rand);
+		for (int y = 1; y < height - 1; y += roomSize) {
+			addHorizontalWalls(walls, y, rand);
+		}
+		addHorizontalWalls(walls, height - 1, rand);
+		return walls;
+	}
+	
+	/**
+	 * Add the walls along a line between two columns, with a doorway in each
+	 * room's length of wall.
+	 * 
+	 * @param walls the walls to add to
+	 * @param x the column to the east of the line
+	 * @param rand the source of the doorway positions
+	 */
+	private void addVerticalWalls(Walls walls, int x, Random rand) {
+		for (int start = 1; start < height - 1; start += roomSize) {
+			int end = Math.min(start + roomSize, height - 1);
+			int door = start + rand.nextInt(end - start);
+			for (int y = start; y < end; y++) {
+				if (y != door) {
+					walls.addWall(x - 1, y, Direction.EAST);
+					walls.addWall(x, y, Direction.WEST);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Add the walls along a line between two rows, with a doorway in each 
+	 * room's length of wall.
+	 * 
+	 * @param walls the walls to add to
+	 * @param y the row to the south of the line
+	 * @param rand the source of the doorway positions
+	 */
+	private void addHorizontalWalls(Walls walls, int y, Random rand) {
+		for (int start = 1; start < width - 1; start += roomSize) {
+			int end = Math.min(start + roomSize, width - 1);
+			int door = start + rand.nextInt(end - start);
+			for (int x = start; x < end; x++) {
+				if (x != door) {
+					walls.addWall(x, y - 1, Direction.SOUTH);
+					walls.addWall(x, y, Direction.NORTH);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,63 @@
+/**
+ *  File name: JavaRandomSource.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game;
+
+import interfaces.RandomSource;
+
+import java.util.Random;
+
+/**
+ * A source of random numbers using {@link java.util.Random}. This is the 
+ * source dice rollers have always used, so a game played with this source 
+ * from a given seed is the same as it always has been, and replay logs stay 
+ * valid. {@link XoshiroRandomSource} is faster.
+ *
+ * @author littlewoo
+ */
+public class JavaRandomSource implements RandomSource {
+	/** the generator */
+	private final Random rand;
+	
+	/**
+	 * Make a new JavaRandomSource.
+	 * 
+	 * @param seed the seed
+	 */
+	public JavaRandomSource(long seed) {
+		rand = new Random(seed);
+	}
+
+	/* (non-Javadoc)
+	 * @see interfaces.RandomSource#nextInt(int)
+	 */
+	@Override
+	public int nextInt(int bound) {
+		return rand.nextInt(bound);
+	}
+
+	/* (non-Javadoc)
+	 * @see interfaces.RandomSource#split()
+	 */
+	@Override
+	public RandomSource split() {
+		return new JavaRandomSource(rand.nextLong());
+	}
+}
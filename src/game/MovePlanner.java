@@ -0,0 +1,279 @@
+/**
+ *  File name: MovePlanner.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game;
+
+import game.action.Action;
+import game.action.Action.ActionType;
+import game.action.MoveAction;
+import game.action.MoveIntoFireAction;
+import game.action.MoveWithVictimAction;
+import game.action.PathMoveAction;
+import game.token.VictimPOIToken;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Works out every square a player can reach with the AP they have, and the
+ * cheapest way to get there, by moving one square at a time. A move costs the
+ * AP of the action it would be: a move into fire costs more than an ordinary
+ * one, and a player carrying a victim pays more for every move and cannot 
+ * carry the victim into fire or onto another POI token. A player without a
+ * victim may move onto a POI token which has not been turned over, but the
+ * path ends there, as moving onto it turns it over.
+ * 
+ * Moves only cost a few AP each, so the squares are searched in order of 
+ * cost using a bucket for each cost (Dial's algorithm), rather than a heap. 
+ * The working space is made once and kept, and only the squares reached are 
+ * cleared for the next plan, so planning takes time in proportion to the
+ * number of squares reached rather than the size of the board.
+ *
+ * @author littlewoo
+ */
+public class MovePlanner {
+	/** the most a single move can cost */
+	private static final int MAX_STEP_COST = Math.max(
+			ActionType.MOVE_INTO_FIRE.getCost(), 
+			ActionType.MOVE_WITH_VICTIM.getCost());
+	/** the number of buckets: enough for every cost which can be waiting */
+	private static final int BUCKET_COUNT = MAX_STEP_COST + 1;
+	
+	/** the board moves are planned on */
+	private final Board board;
+	/** the squares adjacent to each square of the board */
+	private final NeighbourTable neighbours;
+	
+	/** the cheapest cost found to each square, or -1 if it has not been 
+	 *  reached */
+	private final int[] costs;
+	/** the square each square is reached from on its cheapest path */
+	private final int[] parents;
+	/** the squares reached, in order of cost */
+	private final int[] reached;
+	/** the number of squares reached */
+	private int reachedCount;
+	
+	/** the squares waiting to be searched, in buckets by cost */
+	private final int[][] buckets;
+	private final int[] bucketSizes;
+	
+	/** the player and victim of the last plan */
+	private Player player;
+	private VictimPOIToken victim;
+
+	/**
+	 * Make a new MovePlanner.
+	 * 
+	 * @param board the board moves are to be planned on
+	 */
+	public MovePlanner(Board board) {
+		this.board = board;
+		int size = board.getWidth() * board.getHeight();
+		neighbours = NeighbourTable.forSize(board.getWidth(), 
+											board.getHeight());
+		costs = new int[size];
+		Arrays.fill(costs, -1);
+		parents = new int[size];
+		reached = new int[size];
+		buckets = new int[BUCKET_COUNT][size];
+		bucketSizes = new int[BUCKET_COUNT];
+	}
+	
+	/**
+	 * Plan the moves a player can make with their current AP, replacing the
+	 * last plan.
+	 * 
+	 * @param p the player
+	 * @param v the victim the player is carrying, or null if they are not
+	 * 			carrying one
+	 * @return the number of squares reached, including the one the player is
+	 * 			on, or 0 if the player is not on the board
+	 */
+	public int plan(Player p, VictimPOIToken v) {
+		for (int k = 0; k < reachedCount; k++) {
+			costs[reached[k]] = -1;
+		}
+		reachedCount = 0;
+		player = p;
+		victim = v;
+		
+		int start = board.getSquare(p.getToken());
+		if (start < 0) {
+			return 0;
+		}
+		int budget = p.getAp();
+		costs[start] = 0;
+		parents[start] = -1;
+		push(start, 0);
+		int waiting = 1;
+		for (int cost = 0; waiting > 0; cost++) {
+			int b = cost % BUCKET_COUNT;
+			int[] bucket = buckets[b];
+			for (int k = 0; k < bucketSizes[b]; k++) {
+				int s = bucket[k];
+				waiting--;
+				if (costs[s] != cost) {
+					continue;
+				}
+				reached[reachedCount++] = s;
+				if (s == start || !board.isHiddenPOIAt(s)) {
+					waiting += relax(s, cost, budget);
+				}
+			}
+			bucketSizes[b] = 0;
+		}
+		return reachedCount;
+	}
+	
+	/**
+	 * Try moving from a square to each of its neighbours, recording any which
+	 * are reached more cheaply than before.
+	 * 
+	 * @param s the index of the square
+	 * @param cost the cost of reaching the square
+	 * @param budget the most AP which can be spent
+	 * @return the number of squares added to the buckets
+	 */
+	private int relax(int s, int cost, int budget) {
+		int added = 0;
+		int dirs = board.getPassableDirections(s);
+		for (int d = 0; d < NeighbourTable.DIRECTION_COUNT; d++) {
+			if ((dirs & (1 << d)) == 0) {
+				continue;
+			}
+			int n = neighbours.getNeighbour(s, d);
+			if (board.isPlayerAt(n)) {
+				continue;
+			}
+			ActionType type = getStepType(n);
+			if (type == null) {
+				continue;
+			}
+			int c = cost + type.getCost();
+			if (c <= budget && (costs[n] < 0 || c < costs[n])) {
+				costs[n] = c;
+				parents[n] = s;
+				push(n, c);
+				added++;
+			}
+		}
+		return added;
+	}
+	
+	/**
+	 * Add a square to the bucket for its cost.
+	 * 
+	 * @param s the index of the square
+	 * @param cost the cost of reaching it
+	 */
+	private void push(int s, int cost) {
+		int b = cost % BUCKET_COUNT;
+		buckets[b][bucketSizes[b]++] = s;
+	}
+	
+	/**
+	 * Get the type of move which would take the player onto a square.
+	 * 
+	 * @param n the index of the square
+	 * @return the type of the move, or null if the player cannot move there
+	 */
+	private ActionType getStepType(int n) {
+		if (victim == null) {
+			return board.isFireAt(n) ? ActionType.MOVE_INTO_FIRE 
+									 : ActionType.MOVE;
+		} else if (board.isFireAt(n) || board.isPOIAt(n)) {
+			return null;
+		} else {
+			return ActionType.MOVE_WITH_VICTIM;
+		}
+	}
+	
+	/**
+	 * @return the number of squares reached by the last plan
+	 */
+	public int getReachedCount() {
+		return reachedCount;
+	}
+	
+	/**
+	 * @param k the number of a square reached, from 0 to getReachedCount() - 1,
+	 * 			in order of cost
+	 * @return the index of the square
+	 */
+	public int getReached(int k) {
+		return reached[k];
+	}
+	
+	/**
+	 * @param i the index of a square
+	 * @return the cheapest cost of reaching the square in the last plan, or -1
+	 * 			if it cannot be reached
+	 */
+	public int getCost(int i) {
+		return costs[i];
+	}
+	
+	/**
+	 * Get the cheapest path to a square.
+	 * 
+	 * @param i the index of a square reached by the last plan
+	 * @return the indices of the squares on the path, in order, not including
+	 * 			the one the player starts on
+	 */
+	public int[] getPath(int i) {
+		int length = 0;
+		for (int s = i; parents[s] >= 0; s = parents[s]) {
+			length++;
+		}
+		int[] path = new int[length];
+		for (int s = i; parents[s] >= 0; s = parents[s]) {
+			path[--length] = s;
+		}
+		return path;
+	}
+	
+	/**
+	 * Make the action which moves the player along the cheapest path to a 
+	 * square.
+	 * 
+	 * @param i the index of a square reached by the last plan, other than the
+	 * 			one the player starts on
+	 * @return the action
+	 */
+	public PathMoveAction makePathAction(int i) {
+		int width = board.getWidth();
+		int[] path = getPath(i);
+		List<Action> steps = new ArrayList<Action>(path.length);
+		for (int s : path) {
+			Point loc = new Point(s % width, s / width);
+			if (victim != null) {
+				steps.add(new MoveWithVictimAction(player, loc, victim));
+			} else if (board.isFireAt(s)) {
+				steps.add(new MoveIntoFireAction(player, loc));
+			} else {
+				steps.add(new MoveAction(player, loc));
+			}
+		}
+		return new PathMoveAction(player, steps, costs[i]);
+	}
+}
@@ -0,0 +1,161 @@
+/**
+ *  File name: NeighbourTable.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game;
+
+import game.Walls.Direction;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A table of the squares adjacent to each square of a board, worked out once
+ * for each size of board. Squares are given by their index,
+ * <code>y * width + x</code>, and directions by their
+ * {@link Direction#getIndex()}.
+ *
+ * @author littlewoo
+ */
+public class NeighbourTable {
+	/** the number of directions a square can have neighbours in */
+	public static final int DIRECTION_COUNT = 4;
+
+	/** the tables made so far, keyed by the size of the board */
+	private static final Map<Long, NeighbourTable> tables =
+			new HashMap<Long, NeighbourTable>();
+
+	/** the dimensions of the board */
+	private final int width;
+	private final int height;
+
+	/** the change in index for a step in each direction */
+	private final int[] offsets;
+
+	/** the neighbour of each square in each direction, or -1 if that would
+	 *  be off the board. Square i's neighbours are at 4i to 4i+3. */
+	private final int[] neighbours;
+
+	/** for each square, a bit for each direction which stays on the board */
+	private final byte[] onBoard;
+
+	/**
+	 * Make a new NeighbourTable.
+	 *
+	 * @param width the width of the board
+	 * @param height the height of the board
+	 */
+	private NeighbourTable(int width, int height) {
+		this.width = width;
+		this.height = height;
+		offsets = new int[DIRECTION_COUNT];
+		offsets[Direction.NORTH.getIndex()] = -width;
+		offsets[Direction.SOUTH.getIndex()] = width;
+		offsets[Direction.EAST.getIndex()] = 1;
+		offsets[Direction.WEST.getIndex()] = -1;
+
+		neighbours = new int[width * height * DIRECTION_COUNT];
+		onBoard = new byte[width * height];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int i = y * width + x;
+				setNeighbour(i, Direction.NORTH, y > 0);
+				setNeighbour(i, Direction.SOUTH, y < height - 1);
+				setNeighbour(i, Direction.EAST, x < width - 1);
+				setNeighbour(i, Direction.WEST, x > 0);
+			}
+		}
+	}
+
+	/**
+	 * Fill in the table entry for one neighbour of a square.
+	 *
+	 * @param i the index of the square
+	 * @param dir the direction of the neighbour
+	 * @param exists true if the neighbour is on the board
+	 */
+	private void setNeighbour(int i, Direction dir, boolean exists) {
+		int d = dir.getIndex();
+		if (exists) {
+			neighbours[i * DIRECTION_COUNT + d] = i + offsets[d];
+			onBoard[i] |= 1 << d;
+		} else {
+			neighbours[i * DIRECTION_COUNT + d] = -1;
+		}
+	}
+
+	/**
+	 * Get the table for a size of board, making it if this is the first time
+	 * it has been asked for.
+	 *
+	 * @param width the width of the board
+	 * @param height the height of the board
+	 * @return the table
+	 */
+	public static synchronized NeighbourTable forSize(int width, int height) {
+		Long key = ((long) width << 32) | height;
+		NeighbourTable table = tables.get(key);
+		if (table == null) {
+			table = new NeighbourTable(width, height);
+			tables.put(key, table);
+		}
+		return table;
+	}
+
+	/**
+	 * @return the width of the board
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the height of the board
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @param dir the index of a direction
+	 * @return the change in index for a step in that direction
+	 */
+	public int getOffset(int dir) {
+		return offsets[dir];
+	}
+
+	/**
+	 * @param i the index of a square
+	 * @param dir the index of a direction
+	 * @return the index of the neighbouring square in that direction, or -1 if
+	 * 			it would be off the board
+	 */
+	public int getNeighbour(int i, int dir) {
+		return neighbours[i * DIRECTION_COUNT + dir];
+	}
+
+	/**
+	 * @param i the index of a square
+	 * @return a mask with the bit {@link Direction#getBit()} set for each 
+	 * 			direction in which the square has a neighbour on the board
+	 */
+	public int getOnBoardDirections(int i) {
+		return onBoard[i];
+	}
+}
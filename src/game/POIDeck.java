@@ -0,0 +1,125 @@
+/**
+ *  File name: POIDeck.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game;
+
+import game.token.POIToken.POIFaceType;
+
+import java.util.Arrays;
+
+/**
+ * A deck of face down POI tokens. Only the face of each token is stored, as 
+ * a byte, and the token itself is made when it is drawn. The top of the deck 
+ * is the end of the array, so drawing, peeking and returning a token to the 
+ * top of the deck all take constant time, and shuffling takes time in 
+ * proportion to the size of the deck.
+ *
+ * @author littlewoo
+ */
+public class POIDeck {
+	/** the face types, by ordinal */
+	private static final POIFaceType[] FACES = POIFaceType.values();
+	
+	/** the faces of the tokens in the deck; the first {@link #count} are 
+	 *  used, and the last of those is the top of the deck */
+	private byte[] cards;
+	/** the number of tokens in the deck */
+	private int count;
+	
+	/**
+	 * Make a new, unshuffled deck.
+	 * 
+	 * @param victims the number of victim tokens in the deck
+	 * @param blanks the number of blank tokens in the deck
+	 */
+	public POIDeck(int victims, int blanks) {
+		cards = new byte[victims + blanks];
+		for (int i = 0; i < blanks; i++) {
+			cards[count++] = (byte) POIFaceType.BLANK.ordinal();
+		}
+		for (int i = 0; i < victims; i++) {
+			cards[count++] = (byte) POIFaceType.VICTIM.ordinal();
+		}
+	}
+	
+	/**
+	 * @return the number of tokens in the deck
+	 */
+	public int size() {
+		return count;
+	}
+	
+	/**
+	 * @return true if there are no tokens in the deck
+	 */
+	public boolean isEmpty() {
+		return count == 0;
+	}
+	
+	/**
+	 * @return the face of the token on top of the deck
+	 * @throws IllegalStateException if the deck is empty
+	 */
+	public POIFaceType peek() {
+		if (count == 0) {
+			throw new IllegalStateException("The POI deck is empty");
+		}
+		return FACES[cards[count - 1]];
+	}
+	
+	/**
+	 * Take the token from the top of the deck.
+	 * 
+	 * @return the face of the token
+	 * @throws IllegalStateException if the deck is empty
+	 */
+	public POIFaceType draw() {
+		POIFaceType face = peek();
+		count --;
+		return face;
+	}
+	
+	/**
+	 * Put a token back on top of the deck.
+	 * 
+	 * @param face the face of the token
+	 */
+	public void returnToDeck(POIFaceType face) {
+		if (count == cards.length) {
+			cards = Arrays.copyOf(cards, Math.max(8, count * 2));
+		}
+		cards[count++] = (byte) face.ordinal();
+	}
+	
+	/**
+	 * Shuffle the tokens in the deck, in place, with the Fisher-Yates shuffle.
+	 * Every order of the tokens is equally likely.
+	 * 
+	 * @param roller the source of randomness
+	 */
+	public void shuffle(DiceRoller roller) {
+		for (int i = count - 1; i > 0; i--) {
+			int j = roller.roll(i + 1) - 1;
+			byte t = cards[i];
+			cards[i] = cards[j];
+			cards[j] = t;
+		}
+	}
+}
@@ -22,14 +22,10 @@ package game;
 
 import game.token.POIQuestionMarkToken;
 import game.token.POIToken;
-import game.token.POIToken.POIFaceType;
-import interfaces.ListShuffler;
 import interfaces.POIEventListener;
 import interfaces.TurnPhaseListener;
 
 import java.awt.Point;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  *
@@ -44,11 +40,8 @@ public class POITokenManager implements POIEventListener, TurnPhaseListener {
 	/** the board whose POITokens are being managed */
 	private final Board board;
 	
-	/** the list of POI tokens in this game */
-	private List<POIToken> stack;
-	
-	/** the index of the next POI to be placed */
-	private int nextPOI;
+	/** the POI tokens still to be placed in this game */
+	private final POIDeck deck;
 	
 	/** a dice roller for placing POIs and shuffling the stack */
 	private DiceRoller roller;
@@ -73,7 +66,8 @@ public class POITokenManager implements POIEventListener, TurnPhaseListener {
 		this.poiReplacesFire = poiReplacesFire;
 		this.board = board;
 		this.roller = roller;
-		stack = getTokenStack(victims, blanks, roller);
+		deck = new POIDeck(victims, blanks);
+		deck.shuffle(roller);
 	}
 
 	/* (non-Javadoc)
@@ -109,37 +103,14 @@ public class POITokenManager implements POIEventListener, TurnPhaseListener {
 	 * Place the next token on the board, in a random location.
 	 */
 	private void placeNextTokenRandomly() {
-		if (nextPOI < stack.size()) {
-			POIToken pt = stack.get(nextPOI);
-			Point p;
-			do {
-				int x = roller.rollDie(8, false).roll;
-				int y = roller.rollDie(6, false).roll;
-				p = new Point(x, y);
-			} while (board.getPOITokenAt(p) != null);
+		if (!deck.isEmpty()) {
+			Point p = board.choosePOISquare(roller, poiReplacesFire);
+			if (p == null) {
+				return;
+			}
+			POIToken pt = new POIQuestionMarkToken(deck.draw());
 			board.addPOIToken(p, pt, poiReplacesFire);
-			nextPOI ++;
-		}
-	}
-
-	/**
-	 * Create all the POI tokens for use in the game. 
-	 * 
-	 * @param count the number of POI tokens to generate
-	 * @param ratio the number of blank POI tokens to generate for each victim
-	 * @return the list of POI tokens, in shuffled order.
-	 */
-	public List<POIToken> getTokenStack(int victims, int blanks,
-												  ListShuffler shuffler) {
-		List<POIToken> result = new ArrayList<POIToken>();
-		for (int i=0; i<blanks; i++) {
-			result.add(new POIQuestionMarkToken(POIFaceType.BLANK));
-		}
-		for (int i=0; i<victims; i++) {
-			result.add(new POIQuestionMarkToken(POIFaceType.VICTIM));
 		}
-		result = shuffler.shuffle(result);
-		return result;
 	}
 
 	/** 
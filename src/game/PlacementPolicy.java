@@ -0,0 +1,41 @@
+/**
+ *  File name: PlacementPolicy.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game;
+
+/**
+ * The ways in which a square can be chosen at random to place a token on.
+ * Both choose each free square with the same chance.
+ *
+ * @author littlewoo
+ */
+public enum PlacementPolicy {
+	/** 
+	 * Roll a die for each coordinate, as in the board game. If the square is
+	 * taken, choose one of the free squares, in order of index, with one more
+	 * roll. Games placed like this are the same as they have always been.
+	 */
+	DICE,
+	/** 
+	 * Choose one of the free squares with a single roll, in constant time 
+	 * however large or full the board is. 
+	 */
+	UNIFORM;
+}
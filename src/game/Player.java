@@ -21,6 +21,7 @@
 package game;
 
 import game.action.Action;
+import game.action.Action.ActionType;
 import game.token.PlayerToken;
 import interfaces.APListener;
 
@@ -77,6 +78,14 @@ public class Player {
 		return action.getApCost() <= ap;
 	}
 	
+	/**
+	 * @param type a type of action
+	 * @return true if the player is capable of an action of that type
+	 */
+	public boolean canPerformAction(ActionType type) {
+		return type.getCost() <= ap;
+	}
+	
 	/**
 	 * Register the beginning of a new turn with the player.
 	 */
@@ -116,8 +125,10 @@ public class Player {
 	 * Alert the listeners that the number of AP has changed
 	 */
 	private void alertAPListeners() {
-		for (APListener al : apListeners) {
-			al.onAPChange(token, ap);
+		if (apListeners != null) {
+			for (APListener al : apListeners) {
+				al.onAPChange(token, ap);
+			}
 		}
 	}
 }
@@ -18,7 +18,7 @@
  *  You should have received a copy of the GNU General Public License
  *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
  */
-package ui.playersDialog;
+package game;
 
 import java.awt.Color;
 
@@ -0,0 +1,247 @@
+/**
+ *  File name: ThreatLayer.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game;
+
+import game.token.FireToken;
+import game.token.SmokeToken;
+import game.token.ThreatToken;
+
+/**
+ * A storage class for the threats (fire and smoke) on the board. The threats
+ * are held as a pair of bitboards, one for fire and one for smoke, so that the
+ * fire phases of the game can be carried out with bitwise operations.
+ *
+ * Threat tokens are only made when the rest of the game needs to hear about
+ * a change: any change to the bitboards marks the squares involved as dirty,
+ * and {@link #updateToken(int)} then brings the token on a square up to date.
+ *
+ * @author littlewoo
+ */
+public class ThreatLayer {
+	/** the squares with fire on them */
+	private final BitBoard fire;
+	/** the squares with smoke on them */
+	private final BitBoard smoke;
+	/** the squares whose tokens may not match the bitboards */
+	private final BitBoard dirty;
+	
+	/** working space for spreading fire into smoke: the squares which caught
+	 *  fire in the last step, and those catching fire in this one */
+	private BitBoard front;
+	private BitBoard next;
+
+	/** the token currently representing the threat on each square */
+	private final TokenLayer<ThreatToken> tokens;
+
+	/**
+	 * Make a new, empty ThreatLayer.
+	 *
+	 * @param width the width of the layer
+	 * @param height the height of the layer
+	 */
+	public ThreatLayer(int width, int height) {
+		fire = new BitBoard(width, height);
+		smoke = new BitBoard(width, height);
+		dirty = new BitBoard(width, height);
+		front = new BitBoard(width, height);
+		next = new BitBoard(width, height);
+		tokens = new TokenLayer<ThreatToken>(width, height);
+	}
+
+	/**
+	 * @return the squares with fire on them. Any changes made to the returned
+	 * 			set must also be marked with {@link #markDirty(BitBoard)}.
+	 */
+	BitBoard getFire() {
+		return fire;
+	}
+
+	/**
+	 * @return the squares with smoke on them. Any changes made to the returned
+	 * 			set must also be marked with {@link #markDirty(BitBoard)}.
+	 */
+	BitBoard getSmoke() {
+		return smoke;
+	}
+
+	/**
+	 * @param i the index of the square
+	 * @return true if there is fire on the square
+	 */
+	public boolean isFireAt(int i) {
+		return fire.get(i);
+	}
+
+	/**
+	 * @param i the index of the square
+	 * @return true if there is smoke on the square
+	 */
+	public boolean isSmokeAt(int i) {
+		return smoke.get(i);
+	}
+
+	/**
+	 * @param i the index of the square
+	 * @return true if there is fire or smoke on the square
+	 */
+	public boolean isThreatAt(int i) {
+		return fire.get(i) || smoke.get(i);
+	}
+
+	/**
+	 * Place smoke on a square, replacing any fire there.
+	 *
+	 * @param i the index of the square
+	 */
+	public void placeSmoke(int i) {
+		fire.clear(i);
+		smoke.set(i);
+		dirty.set(i);
+	}
+
+	/**
+	 * Place fire on a square, replacing any smoke there.
+	 *
+	 * @param i the index of the square
+	 */
+	public void placeFire(int i) {
+		smoke.clear(i);
+		fire.set(i);
+		dirty.set(i);
+	}
+
+	/**
+	 * Remove any threat from a square.
+	 *
+	 * @param i the index of the square
+	 */
+	public void clear(int i) {
+		fire.clear(i);
+		smoke.clear(i);
+		dirty.set(i);
+	}
+
+	/**
+	 * Change into fire all the smoke which is joined to fire by a chain of 
+	 * adjacent squares of smoke. The fire is spread a step at a time: the 
+	 * squares which caught fire in the last step are dilated and masked with 
+	 * the smoke, until no more smoke catches fire. Every square changed is 
+	 * marked dirty.
+	 */
+	public void smokeIntoFire() {
+		if (fire.isEmpty() || smoke.isEmpty()) {
+			return;
+		}
+		front.copyFrom(fire);
+		while (true) {
+			next.setToNeighbours(front);
+			next.and(smoke);
+			if (next.isEmpty()) {
+				return;
+			}
+			smoke.andNot(next);
+			fire.or(next);
+			dirty.or(next);
+			BitBoard lit = next;
+			next = front;
+			front = lit;
+		}
+	}
+
+	/**
+	 * Mark a set of squares as changed.
+	 *
+	 * @param changed the squares which have changed
+	 */
+	void markDirty(BitBoard changed) {
+		dirty.or(changed);
+	}
+
+	/**
+	 * Place a given token on an empty square. The token becomes the one
+	 * representing the threat on that square.
+	 *
+	 * @param i the index of the square
+	 * @param t the token
+	 * @return true if the token could be placed (i.e. the square was empty)
+	 */
+	public boolean addToken(int i, ThreatToken t) {
+		if (isThreatAt(i)) {
+			return false;
+		}
+		if (t instanceof FireToken) {
+			fire.set(i);
+		} else {
+			smoke.set(i);
+		}
+		tokens.put(i, t);
+		return true;
+	}
+
+	/**
+	 * Get the token representing the threat on a square. The token is only
+	 * guaranteed to be up to date if the square is not dirty.
+	 *
+	 * @param i the index of the square
+	 * @return the token, or null if there is no threat there
+	 */
+	public ThreatToken getTokenAt(int i) {
+		return tokens.get(i);
+	}
+
+	/**
+	 * Find the next dirty square, starting from a given index.
+	 *
+	 * @param from the index to start from (inclusive)
+	 * @return the index of the next dirty square, or -1 if there is none
+	 */
+	public int nextDirty(int from) {
+		return dirty.nextSetBit(from);
+	}
+
+	/**
+	 * Bring the token on a square up to date with the bitboards. If the token
+	 * no longer matches the threat on the square, it is replaced by a new one
+	 * (or removed, if the square is now empty). The square is no longer dirty
+	 * afterwards.
+	 *
+	 * @param i the index of the square
+	 * @return true if the token on the square was changed
+	 */
+	public boolean updateToken(int i) {
+		dirty.clear(i);
+		ThreatToken old = tokens.get(i);
+		boolean isFire = fire.get(i);
+		boolean isSmoke = smoke.get(i);
+		if ((isFire && old instanceof FireToken) ||
+			(isSmoke && old instanceof SmokeToken) ||
+			(!isFire && !isSmoke && old == null)) {
+			return false;
+		}
+		tokens.remove(i);
+		if (isFire) {
+			tokens.put(i, new FireToken());
+		} else if (isSmoke) {
+			tokens.put(i, new SmokeToken());
+		}
+		return true;
+	}
+}
@@ -23,23 +23,30 @@ package game;
 import game.token.Token;
 
 import java.awt.Point;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 /**
- * A storage class for storing tokens.
+ * A storage class for storing tokens. Tokens are held in an array, indexed by
+ * the square they are on: the square (x, y) has the index 
+ * <code>y * width + x</code>. Lookups by index or coordinates make no new 
+ * objects.
  *
  * @author littlewoo
  */
 public class TokenLayer<T extends Token> {
 	/** The token store */
-	private Map<Point, T> tokens;
+	private final Token[] tokens;
+	/** the squares which have a token on them */
+	private final BitBoard occupied;
+	/** the squares whose freedom is tracked, or null if none are */
+	private BitBoard tracked;
+	/** the tracked squares with no token on them */
+	private FreeCellIndex free;
 	
 	/** the dimensions of the layer */
-	private int width;
-	private int height;
+	private final int width;
+	private final int height;
 	
 	/**
 	 * Make a new TokenLayer, of a given width and height
@@ -48,7 +55,8 @@ public class TokenLayer<T extends Token> {
 	 * @param height
 	 */
 	public TokenLayer(int width, int height) {
-		tokens = new HashMap<Point, T>();
+		tokens = new Token[width * height];
+		occupied = new BitBoard(width, height);
 		this.width = width;
 		this.height = height;
 	}
@@ -57,14 +65,168 @@ public class TokenLayer<T extends Token> {
 	 * Check whether a location is within the bounds of the layer, and if not,
 	 * throw an ArrayIndexOutOfBoundsException.
 	 * 
-	 * @param p the point to check
+	 * @param x the x coordinate to check
+	 * @param y the y coordinate to check
 	 */
-	private void throwExceptionIfOutOfBounds(Point p) {
-		if (p.x > width || p.y > height) {
-			throw new ArrayIndexOutOfBoundsException("Point out of bounds.");
+	private void throwExceptionIfOutOfBounds(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height) {
+			throw new ArrayIndexOutOfBoundsException(
+					"Point out of bounds: (" + x + "," + y + ")");
 		}		
 	}
 	
+	/**
+	 * Start keeping an index of which of a set of squares have no token on 
+	 * them. The index is kept up to date as tokens are put and removed.
+	 * 
+	 * @param squares the squares to track, which must not be changed 
+	 * 			afterwards
+	 */
+	public void trackFreeSquares(BitBoard squares) {
+		tracked = squares;
+		free = new FreeCellIndex(width * height);
+		for (int i = squares.nextSetBit(0); i >= 0; 
+				 i = squares.nextSetBit(i + 1)) {
+			if (tokens[i] == null) {
+				free.add(i);
+			}
+		}
+	}
+	
+	/**
+	 * @return the tracked squares with no token on them, or null if no 
+	 * 			squares are tracked
+	 * @see #trackFreeSquares(BitBoard)
+	 */
+	public FreeCellIndex getFreeSquares() {
+		return free;
+	}
+	
+	/**
+	 * @return the squares which have a token on them. The set must not be 
+	 * 			changed.
+	 */
+	BitBoard getOccupied() {
+		return occupied;
+	}
+	
+	/**
+	 * Get the index of a square in the layer.
+	 * 
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return the index of the square
+	 */
+	public int index(int x, int y) {
+		throwExceptionIfOutOfBounds(x, y);
+		return y * width + x;
+	}
+	
+	/**
+	 * Get the token on a given square. Returns null if no token is there.
+	 * 
+	 * @param i the index of the square
+	 * @return the token on the square, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int i) {
+		return (T) tokens[i];
+	}
+	
+	/**
+	 * Get the token at a given location. Returns null if no token is there.
+	 * 
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return the token at the location, or null
+	 */
+	public T get(int x, int y) {
+		return get(index(x, y));
+	}
+	
+	/**
+	 * Put a token on a given square. If the square is already occupied, this 
+	 * method does not change the state of the layer at all.
+	 * 
+	 * @param i the index of the square
+	 * @param t the token
+	 * @return true if the token was added, false if there was already a token
+	 * 				there
+	 */
+	public boolean put(int i, T t) {
+		if (tokens[i] != null) {
+			return false;
+		}
+		tokens[i] = t;
+		occupied.set(i);
+		if (free != null) {
+			free.remove(i);
+		}
+		return true;
+	}
+	
+	/**
+	 * Put a token at a given location. If the location is already occupied, 
+	 * this method does not change the state of the layer at all.
+	 * 
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @param t the token
+	 * @return true if the token was added, false if there was already a token
+	 * 				there
+	 */
+	public boolean put(int x, int y, T t) {
+		return put(index(x, y), t);
+	}
+	
+	/**
+	 * Remove the token from a given square.
+	 * 
+	 * @param i the index of the square
+	 * @return the token removed, or null if there wasn't one
+	 */
+	public T remove(int i) {
+		T t = get(i);
+		tokens[i] = null;
+		occupied.clear(i);
+		if (free != null && tracked.get(i)) {
+			free.add(i);
+		}
+		return t;
+	}
+	
+	/**
+	 * Remove the token from a given location.
+	 * 
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return the token removed, or null if there wasn't one
+	 */
+	public T remove(int x, int y) {
+		return remove(index(x, y));
+	}
+	
+	/**
+	 * Find the next occupied square, starting from a given index. To visit 
+	 * every token in the layer:
+	 * <code>
+	 * 		for (int i = l.nextOccupied(0); i >= 0; i = l.nextOccupied(i + 1))
+	 * </code>
+	 * 
+	 * @param from the index to start from (inclusive)
+	 * @return the index of the next occupied square, or -1 if there is none
+	 */
+	public int nextOccupied(int from) {
+		return occupied.nextSetBit(from);
+	}
+	
+	/**
+	 * @return the number of tokens in the layer
+	 */
+	public int getCount() {
+		return occupied.cardinality();
+	}
+	
 	/**
 	 * Get the token at a given location in the layer. Returns null if no token
 	 * is there.
@@ -73,8 +235,7 @@ public class TokenLayer<T extends Token> {
 	 * @return the token at the location, or null
 	 */
 	public T getTokenAt(Point p) {
-		throwExceptionIfOutOfBounds(p);
-		return tokens.get(p);
+		return get(p.x, p.y);
 	}
 	
 	/**
@@ -84,8 +245,8 @@ public class TokenLayer<T extends Token> {
 	 */
 	public Set<T> getAllTokens() {
 		Set<T> result = new HashSet<T>();
-		for (T t : tokens.values()) {
-			result.add(t);
+		for (int i = nextOccupied(0); i >= 0; i = nextOccupied(i + 1)) {
+			result.add(get(i));
 		}
 		return result;
 	}
@@ -101,12 +262,7 @@ public class TokenLayer<T extends Token> {
 	 * 				was already a token there)
 	 */
 	public boolean addToken(T t, Point p) {
-		throwExceptionIfOutOfBounds(p);		
-		if (tokens.get(p) != null) {
-			return false;
-		}
-		tokens.put(p, t);
-		return true;
+		return put(p.x, p.y, t);
 	}
 	
 	/**
@@ -116,6 +272,6 @@ public class TokenLayer<T extends Token> {
 	 * @return the token removed from the layer, or null if there wasn't one
 	 */
 	public T removeToken(Point p) {
-		return tokens.remove(p);
+		return remove(p.x, p.y);
 	}
 }
@@ -23,33 +23,51 @@ package game;
 import game.Walls.Direction;
 import interfaces.WallProvider;
 
-import java.awt.Point;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Properties;
-import java.util.Set;
 
 /**
- * Utility class for creating walls for the board.
+ * Utility class for creating walls for the board, read from a board file. The
+ * file gives the width and height of the board, and the walls of each square
+ * as a string of directions (e.g. <code>NW</code>), keyed by the coordinates
+ * of the square. The key is <code>x,y</code>; on boards no larger than 10x10 
+ * the key may also be written without the comma, as <code>xy</code>.
  *
  * @author littlewoo
  */
 public class WallCreator implements WallProvider {
+	/** the file used if no other is given */
+	private static final String DEFAULT_FILE = "res/simple.board";
+	
+	/** the board file to read */
+	private final File file;
+	
+	/**
+	 * Make a new WallCreator, reading the default board.
+	 */
+	public WallCreator() {
+		this(new File(DEFAULT_FILE));
+	}
+	
+	/**
+	 * Make a new WallCreator, reading a given board file.
+	 * 
+	 * @param file the board file
+	 */
+	public WallCreator(File file) {
+		this.file = file;
+	}
 
 	/**
 	 * Create the walls 
 	 * 
+	 * @param f the board file to read
 	 * @return the walls
-	 * @throws IOException 
 	 */
-	private static Walls createWalls() {
-		Map<Point, Set<Direction>> dirs = new HashMap<Point, Set<Direction>>();
-		File f = new File("res/simple.board");
+	private static Walls createWalls(File f) {
 		FileReader fr = null;
 		try {
 			fr = new FileReader(f);
@@ -67,23 +85,24 @@ public class WallCreator implements WallProvider {
 		int height = Integer.parseInt(props.getProperty("height"));
 		int width = Integer.parseInt(props.getProperty("width"));
 		System.out.println("Dimension: (" + width + "x" + height + ")");
+		Walls walls = new Walls(width, height);
 		for (int x=0; x<width; x++) {
 			for (int y=0; y<height; y++) {
-				Set<Direction> dir = new HashSet<Direction>();
-				String key = "" + x + y;
+				String key = x + "," + y;
 				String val = props.getProperty(key);
+				if (val == null && width <= 10 && height <= 10) {
+					val = props.getProperty("" + x + y);
+				}
 				if (val == null) {
 					System.out.println("Couldn't read the property: " + key);
+					continue;
 				}
 				for (char c : val.toCharArray()) {
-					dir.add(Direction.getDir(c));
+					walls.addWall(x, y, Direction.getDir(c));
 				}
-				dirs.put(new Point(x, y), dir);
-				System.out.println(dir);
 			}
-			System.out.println("---------------");
 		}
-		return new Walls(dirs);
+		return walls;
 	}
 	
 	/* (non-Javadoc)
@@ -91,7 +110,7 @@ public class WallCreator implements WallProvider {
 	 */
 	@Override
 	public Walls getWalls() {
-		return createWalls();
+		return createWalls(file);
 	}
 
 }
@@ -20,22 +20,29 @@
  */
 package game;
 
-import java.awt.Point;
-import java.util.Map;
-import java.util.Set;
-
 /**
  * Class for storing the walls, and determining whether a given move is passable
- * or blocked by walls.
+ * or blocked by walls. The walls around each square are packed into a 4 bit 
+ * mask, with the bit {@link Direction#getBit()} set for each direction in 
+ * which there is a wall.
  *
  * @author littlewoo
  */
 public class Walls {
-	/** The walls */
-	private Map<Point, Set<Direction>> walls;
+	/** the mask of all the directions */
+	public static final int ALL_DIRECTIONS = 0xF;
+	
+	/** The walls: one mask for each square, indexed by y * width + x */
+	private final byte[] walls;
+	
+	/** the dimensions of the board */
+	private final int width;
+	private final int height;
 	
 	/**
-	 * <p>Constructor for walls. The walls are represented as follows: </p>
+	 * <p>Constructor for walls. The walls start with no walls in, and are 
+	 * added using {@link #addWall(int, int, Direction)}. The walls are 
+	 * represented as follows: </p>
 	 * 
 	 *         1       2       3
 	 *  
@@ -54,13 +61,58 @@ public class Walls {
 	 *      +--h03--+--h13--+--h23--+   <br />
 	 *   
 	 * 
-	 * @param horizontal the horizontal set of walls
-	 * @param vertical the vertical set of walls
+	 * @param width the width of the board
+	 * @param height the height of the board
 	 */
-	public Walls(Map<Point, Set<Direction>> walls) {
-		System.out.println(walls);
-		this.walls = walls;
-		
+	public Walls(int width, int height) {
+		this.width = width;
+		this.height = height;
+		walls = new byte[width * height];
+	}
+	
+	/**
+	 * @return the width of the board
+	 */
+	public int getWidth() {
+		return width;
+	}
+	
+	/**
+	 * @return the height of the board
+	 */
+	public int getHeight() {
+		return height;
+	}
+	
+	/**
+	 * Get the index of a square in the wall masks.
+	 * 
+	 * @param x the x coordinate of the square
+	 * @param y the y coordinate of the square
+	 * @return the index of the square
+	 * 
+	 * @throws ArrayIndexOutOfBoundsException if x or y are outside the bounds 
+	 * 			of the board
+	 */
+	private int index(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height) {
+			throw new ArrayIndexOutOfBoundsException(
+					"Square out of bounds: (" + x + "," + y + ")");
+		}
+		return y * width + x;
+	}
+	
+	/**
+	 * Add a wall on one side of a square. Note that this only blocks movement 
+	 * out of the square; the neighbouring square needs its own wall to block 
+	 * movement in the other direction.
+	 * 
+	 * @param x the x coordinate of the square
+	 * @param y the y coordinate of the square
+	 * @param dir the side of the square the wall is on
+	 */
+	public void addWall(int x, int y, Direction dir) {
+		walls[index(x, y)] |= dir.getBit();
 	}
 	
 	/**
@@ -79,8 +131,7 @@ public class Walls {
 	 * 			of the board
 	 */
 	public boolean isPassable(int x, int y, Direction dir) {
-		Point p = new Point(x, y);
-		return !walls.get(p).contains(dir);
+		return (walls[index(x, y)] & dir.getBit()) == 0;
 	}
 	
 	/**
@@ -88,21 +139,55 @@ public class Walls {
 	 * 
 	 * @param x the x coordinate of the square to check
 	 * @param y the y coordinate of the square to check
-	 * @return the directions which are blocked by walls from a square
+	 * @return a mask with the bit {@link Direction#getBit()} set for each 
+	 * 			direction which is blocked by a wall
 	 */
-	public Set<Direction> getWalls(int x, int y) {
-		return walls.get(new Point(x, y));
+	public int getWallMask(int x, int y) {
+		return walls[index(x, y)];
+	}
+	
+	/**
+	 * Get the directions which are not blocked by walls from a square. Note 
+	 * that this does not take the edge of the board into account.
+	 * 
+	 * @param x the x coordinate of the square to check
+	 * @param y the y coordinate of the square to check
+	 * @return a mask with the bit {@link Direction#getBit()} set for each 
+	 * 			direction which is not blocked by a wall
+	 */
+	public int getPassableDirections(int x, int y) {
+		return ~walls[index(x, y)] & ALL_DIRECTIONS;
 	}
 	
 	
+	/**
+	 * The directions out of a square. Each direction has a fixed index, which
+	 * gives its bit in the wall masks. 
+	 */
 	public enum Direction {
-		NORTH('N'), SOUTH('S'), EAST('E'), WEST('W');
-		private char character;
+		NORTH(0, 'N'), SOUTH(1, 'S'), EAST(2, 'E'), WEST(3, 'W');
+		private final int index;
+		private final char character;
 		
-		private Direction(char c) {
+		private Direction(int index, char c) {
+			this.index = index;
 			character = c;
 		}
 		
+		/**
+		 * @return the fixed index of this direction, from 0 to 3
+		 */
+		public int getIndex() {
+			return index;
+		}
+		
+		/**
+		 * @return the bit representing this direction in a mask of directions
+		 */
+		public int getBit() {
+			return 1 << index;
+		}
+		
 		public static Direction getDir(char val) {
 			for (Direction d : values()) {
 				if (d.character == val) {
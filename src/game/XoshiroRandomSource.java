@@ -0,0 +1,116 @@
+/**
+ *  File name: XoshiroRandomSource.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game;
+
+import interfaces.RandomSource;
+
+/**
+ * A fast source of random numbers, using the xoshiro256** generator of 
+ * Blackman and Vigna. It is not synchronized. {@link #split()} seeds the new
+ * source from this one's next number through SplitMix64, so sources split 
+ * from split sources, to any depth, are still unrelated: with 256 bits of
+ * state, the chance of two streams of any practical length overlapping is
+ * negligible.
+ *
+ * @author littlewoo
+ */
+public class XoshiroRandomSource implements RandomSource {
+	/** the state of the generator */
+	private long s0;
+	private long s1;
+	private long s2;
+	private long s3;
+	
+	/**
+	 * Make a new XoshiroRandomSource. The state is filled from the seed with 
+	 * SplitMix64, as the authors of the generator recommend, so that similar
+	 * seeds give unrelated streams.
+	 * 
+	 * @param seed the seed
+	 */
+	public XoshiroRandomSource(long seed) {
+		s0 = splitMix(seed += 0x9E3779B97F4A7C15L);
+		s1 = splitMix(seed += 0x9E3779B97F4A7C15L);
+		s2 = splitMix(seed += 0x9E3779B97F4A7C15L);
+		s3 = splitMix(seed + 0x9E3779B97F4A7C15L);
+	}
+	
+	/**
+	 * The SplitMix64 mixing function.
+	 * 
+	 * @param z the value to mix
+	 * @return the mixed value
+	 */
+	private static long splitMix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+	
+	/**
+	 * @return the next 64 random bits
+	 */
+	public long nextLong() {
+		long result = Long.rotateLeft(s1 * 5, 7) * 9;
+		long t = s1 << 17;
+		s2 ^= s0;
+		s3 ^= s1;
+		s1 ^= s2;
+		s0 ^= s3;
+		s2 ^= t;
+		s3 = Long.rotateLeft(s3, 45);
+		return result;
+	}
+
+	/**
+	 * Get a random number less than a bound. The top 32 bits of the next 
+	 * number are multiplied by the bound, and the top half of the product 
+	 * taken, rejecting the few products which would make some results more
+	 * likely than others (Lemire's method). This avoids dividing in all but
+	 * the rejected cases.
+	 * 
+	 * @see interfaces.RandomSource#nextInt(int)
+	 */
+	@Override
+	public int nextInt(int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive");
+		}
+		long m = (nextLong() >>> 32) * bound;
+		long low = m & 0xFFFFFFFFL;
+		if (low < bound) {
+			long threshold = (0x100000000L - bound) % bound;
+			while (low < threshold) {
+				m = (nextLong() >>> 32) * bound;
+				low = m & 0xFFFFFFFFL;
+			}
+		}
+		return (int) (m >>> 32);
+	}
+
+	/* (non-Javadoc)
+	 * @see interfaces.RandomSource#split()
+	 */
+	@Override
+	public RandomSource split() {
+		return new XoshiroRandomSource(nextLong());
+	}
+}
@@ -57,13 +57,24 @@ public abstract class Action {
 	 * @param p the player taking the action
 	 * @param loc the location targeted by the action
 	 * @param type the type of the action
-	 * @param cost the cost of the action
 	 */
 	public Action(Player p, Point loc, ActionType type) {
+		this(p, loc, type, type.getCost());
+	}
+	
+	/**
+	 * Initialize an action whose cost is not the usual cost of its type
+	 * 
+	 * @param p the player taking the action
+	 * @param loc the location targeted by the action
+	 * @param type the type of the action
+	 * @param cost the cost of the action
+	 */
+	protected Action(Player p, Point loc, ActionType type, int cost) {
 		player = p;
 		this.loc = loc;
 		this.type = type;
-		apCost = type.getCost();
+		apCost = cost;
 	}
 	
 	/**
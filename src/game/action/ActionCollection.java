@@ -20,33 +20,275 @@
  */
 package game.action;
 
+import game.Player;
+import game.action.Action.ActionType;
+import game.token.VictimPOIToken;
 import interfaces.ActionStore;
 
 import java.awt.Point;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 
 /**
+ * The actions available to a player at one moment. Each action is stored as
+ * a single int code, packing together its type, whether it carries a victim,
+ * its AP cost and the index of the square it targets (numbered row by row). 
+ * The codes are kept in order of square, with the offset of the first code 
+ * for each square, so the actions on a square are found by a binary search.
+ * 
+ * The {@link Action} objects are only made when they are asked for, and are
+ * kept once made. Bots and simulations which work from the codes make none.
+ * 
+ * A collection made for the user interface can also hold moves of more than
+ * one square, which are kept apart from the single square actions.
  *
  * @author littlewoo
  */
 public class ActionCollection implements ActionStore {
-	/** mapping of points to actions */
-	private final Map<Point, List<Action>> actionLocs;
-	/** this collection's actions */
-	private final List<Action> actions;
-	
-	public ActionCollection(List<Action> actions) {
-		actionLocs = new HashMap<Point, List<Action>>();
-		this.actions = actions;
-		for (Action a : actions) {
-			Point p = a.getLoc();
-			if (actionLocs.get(p) == null) {
-				actionLocs.put(p, new ArrayList<Action>());
+	/** the layout of a code: the type in the lowest bits, then the victim 
+	 *  flag, then the AP cost, then the index of the square */
+	private static final int TYPE_BITS = 3;
+	private static final int VICTIM_SHIFT = TYPE_BITS;
+	private static final int COST_SHIFT = VICTIM_SHIFT + 1;
+	private static final int COST_BITS = 7;
+	private static final int SQUARE_SHIFT = COST_SHIFT + COST_BITS;
+	
+	/** the most squares a board can have for its actions to be stored */
+	public static final int MAX_SQUARES = 1 << (31 - SQUARE_SHIFT);
+	
+	/** the action types, indexed by their ordinal */
+	private static final ActionType[] TYPES = ActionType.values();
+	
+	/** the width of the board */
+	private final int width;
+	/** the player the actions are for */
+	private final Player player;
+	/** the victim on the player's square, or null if there is none */
+	private final VictimPOIToken victim;
+	
+	/** the codes of the actions, in order of square */
+	private final int[] codes;
+	/** the squares with actions on them, in order */
+	private final int[] squares;
+	/** the index in codes of the first action on each square in squares, 
+	 *  followed by the number of actions */
+	private final int[] offsets;
+	
+	/** the actions which have been made, by the index of their code */
+	private final Action[] actions;
+	/** all the actions, as a list, or null if not yet asked for */
+	private List<Action> actionList;
+	
+	/** the moves of more than one square, in order of the square they end 
+	 *  on, and the index of that square for each */
+	private final PathMoveAction[] pathActions;
+	private final int[] pathSquares;
+	
+	/**
+	 * Make a new ActionCollection.
+	 * 
+	 * @param width the width of the board
+	 * @param player the player the actions are for
+	 * @param victim the victim on the player's square, or null if there is 
+	 * 			none
+	 * @param codes the codes of the actions, made by 
+	 * 			{@link #encode(ActionType, int)}, in any order
+	 * @param count the number of codes to use from the array
+	 */
+	public ActionCollection(int width, Player player, VictimPOIToken victim,
+							int[] codes, int count) {
+		this.width = width;
+		this.player = player;
+		this.victim = victim;
+		this.codes = Arrays.copyOf(codes, count);
+		Arrays.sort(this.codes);
+		actions = new Action[count];
+		
+		int squareCount = 0;
+		for (int k = 0; k < count; k++) {
+			if (k == 0 || getSquare(this.codes[k]) != 
+						  getSquare(this.codes[k - 1])) {
+				squareCount++;
+			}
+		}
+		squares = new int[squareCount];
+		offsets = new int[squareCount + 1];
+		int s = 0;
+		for (int k = 0; k < count; k++) {
+			if (k == 0 || getSquare(this.codes[k]) != 
+						  getSquare(this.codes[k - 1])) {
+				squares[s] = getSquare(this.codes[k]);
+				offsets[s] = k;
+				s++;
 			}
-			actionLocs.get(p).add(a);
+		}
+		offsets[squareCount] = count;
+		pathActions = new PathMoveAction[0];
+		pathSquares = new int[0];
+	}
+	
+	/**
+	 * Make a copy of a collection, with moves of more than one square added.
+	 * 
+	 * @param other the collection to copy
+	 * @param paths the moves of more than one square
+	 */
+	private ActionCollection(ActionCollection other, 
+							 List<PathMoveAction> paths) {
+		width = other.width;
+		player = other.player;
+		victim = other.victim;
+		codes = other.codes;
+		squares = other.squares;
+		offsets = other.offsets;
+		actions = new Action[codes.length];
+		pathActions = paths.toArray(new PathMoveAction[paths.size()]);
+		Arrays.sort(pathActions, new Comparator<PathMoveAction>() {
+			@Override
+			public int compare(PathMoveAction a, PathMoveAction b) {
+				return getSquare(a) - getSquare(b);
+			}
+		});
+		pathSquares = new int[pathActions.length];
+		for (int k = 0; k < pathActions.length; k++) {
+			pathSquares[k] = getSquare(pathActions[k]);
+		}
+	}
+	
+	/**
+	 * Make a copy of this collection with moves of more than one square added,
+	 * e.g. for the user interface to offer.
+	 * 
+	 * @param paths the moves of more than one square
+	 * @return the new collection
+	 */
+	public ActionCollection withPathActions(List<PathMoveAction> paths) {
+		return new ActionCollection(this, paths);
+	}
+	
+	/**
+	 * @param a an action
+	 * @return the index of the square the action targets
+	 */
+	private int getSquare(Action a) {
+		return a.getLoc().y * width + a.getLoc().x;
+	}
+	
+	/**
+	 * Make the code for an action.
+	 * 
+	 * @param type the type of the action
+	 * @param square the index of the square the action targets
+	 * @return the code
+	 * @throws IllegalArgumentException if the square is too large to be 
+	 * 			stored, or there is no action of the type which a collection 
+	 * 			can make from its code
+	 */
+	public static int encode(ActionType type, int square) {
+		if (square < 0 || square >= MAX_SQUARES) {
+			throw new IllegalArgumentException("Square out of range: " + square);
+		}
+		switch (type) {
+			case MOVE:
+			case MOVE_INTO_FIRE:
+			case MOVE_WITH_VICTIM:
+				break;
+			default:
+				throw new IllegalArgumentException(
+						"No action for type: " + type);
+		}
+		boolean carriesVictim = type == ActionType.MOVE_WITH_VICTIM;
+		return (square << SQUARE_SHIFT) | (type.getCost() << COST_SHIFT) | 
+			   ((carriesVictim ? 1 : 0) << VICTIM_SHIFT) | type.ordinal();
+	}
+	
+	/**
+	 * @param code the code of an action
+	 * @return the type of the action
+	 */
+	public static ActionType getType(int code) {
+		return TYPES[code & ((1 << TYPE_BITS) - 1)];
+	}
+	
+	/**
+	 * @param code the code of an action
+	 * @return true if the action carries a victim
+	 */
+	public static boolean carriesVictim(int code) {
+		return (code & (1 << VICTIM_SHIFT)) != 0;
+	}
+	
+	/**
+	 * @param code the code of an action
+	 * @return the AP cost of the action
+	 */
+	public static int getApCost(int code) {
+		return (code >>> COST_SHIFT) & ((1 << COST_BITS) - 1);
+	}
+	
+	/**
+	 * @param code the code of an action
+	 * @return the index of the square the action targets
+	 */
+	public static int getSquare(int code) {
+		return code >>> SQUARE_SHIFT;
+	}
+	
+	/**
+	 * @return the number of actions
+	 */
+	public int size() {
+		return codes.length;
+	}
+	
+	/**
+	 * @param k the index of an action, from 0 to size() - 1
+	 * @return the action's code
+	 */
+	public int getCode(int k) {
+		return codes[k];
+	}
+	
+	/**
+	 * Get an action, making it if this is the first time it has been asked 
+	 * for.
+	 * 
+	 * @param k the index of the action, from 0 to size() - 1
+	 * @return the action
+	 */
+	public Action getAction(int k) {
+		Action a = actions[k];
+		if (a == null) {
+			a = makeAction(codes[k]);
+			actions[k] = a;
+		}
+		return a;
+	}
+	
+	/**
+	 * Make the action for a code.
+	 * 
+	 * @param code the code
+	 * @return the action
+	 * @throws IllegalStateException if there is no kind of action for the 
+	 * 			code's type
+	 */
+	private Action makeAction(int code) {
+		int square = getSquare(code);
+		Point loc = new Point(square % width, square / width);
+		switch (getType(code)) {
+			case MOVE:
+				return new MoveAction(player, loc);
+			case MOVE_INTO_FIRE:
+				return new MoveIntoFireAction(player, loc);
+			case MOVE_WITH_VICTIM:
+				return new MoveWithVictimAction(player, loc, victim);
+			default:
+				throw new IllegalStateException(
+						"No action for type: " + getType(code));
 		}
 	}
 
@@ -55,7 +297,20 @@ public class ActionCollection implements ActionStore {
 	 */
 	@Override
 	public List<Action> getActions() {
-		return actions;
+		if (actionList == null) {
+			actionList = new AbstractList<Action>() {
+				@Override
+				public Action get(int k) {
+					return getAction(k);
+				}
+	
+				@Override
+				public int size() {
+					return codes.length;
+				}
+			};
+		}
+		return actionList;
 	}
 
 	/* (non-Javadoc)
@@ -63,7 +318,48 @@ public class ActionCollection implements ActionStore {
 	 */
 	@Override
 	public List<Action> getActions(Point p) {
-		return actionLocs.get(p);
+		return getActions(p.x, p.y);
+	}
+	
+	/* (non-Javadoc)
+	 * @see interfaces.ActionStore#getActions(int, int)
+	 */
+	@Override
+	public List<Action> getActions(int x, int y) {
+		int s = Arrays.binarySearch(squares, y * width + x);
+		if (s < 0) {
+			return null;
+		}
+		return getActions().subList(offsets[s], offsets[s + 1]);
+	}
+	
+	/**
+	 * @return the moves of more than one square, in order of the square they
+	 * 			end on. These are not included in {@link #getActions()}.
+	 */
+	public List<PathMoveAction> getPathActions() {
+		return Collections.unmodifiableList(Arrays.asList(pathActions));
+	}
+	
+	/**
+	 * @param x the x coordinate of a location
+	 * @param y the y coordinate of a location
+	 * @return the moves of more than one square which end on the location, or
+	 * 			null if there are none
+	 */
+	public List<PathMoveAction> getPathActions(int x, int y) {
+		int square = y * width + x;
+		int first = Arrays.binarySearch(pathSquares, square);
+		if (first < 0) {
+			return null;
+		}
+		while (first > 0 && pathSquares[first - 1] == square) {
+			first--;
+		}
+		int last = first;
+		while (last < pathSquares.length && pathSquares[last] == square) {
+			last++;
+		}
+		return getPathActions().subList(first, last);
 	}
-
 }
@@ -0,0 +1,89 @@
+/**
+ *  File name: PathMoveAction.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game.action;
+
+import game.Player;
+import interfaces.ActionPerformer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Action for moving a player more than one square, as a series of single 
+ * square moves performed one after the other. The action has the type of its
+ * last step, and costs the sum of the costs of its steps.
+ *
+ * @author littlewoo
+ */
+public class PathMoveAction extends Action {
+	
+	/** the single square moves making up the path, in order */
+	private final List<Action> steps;
+
+	/**
+	 * Make a new PathMoveAction.
+	 * 
+	 * @param p the player to move
+	 * @param steps the single square moves making up the path, in order
+	 * @param cost the total AP cost of the steps
+	 */
+	public PathMoveAction(Player p, List<Action> steps, int cost) {
+		super(p, steps.get(steps.size() - 1).getLoc(), 
+			  steps.get(steps.size() - 1).getType(), cost);
+		this.steps = Collections.unmodifiableList(steps);
+	}
+	
+	/**
+	 * @return the single square moves making up the path, in order
+	 */
+	public List<Action> getSteps() {
+		return steps;
+	}
+
+	/**
+	 * Perform each step of the path in turn. The whole path is checked before
+	 * any step is taken: the player must be able to afford it, and every step
+	 * must still be possible. Either the whole path is moved along, or none 
+	 * of it is.
+	 * 
+	 * @param performer the ActionPerformer which will carry out the steps
+	 * @return true if the path was moved along
+	 */
+	@Override
+	public boolean performAction(ActionPerformer performer) {
+		if (!getPlayer().canPerformAction(this) || 
+			!performer.canMoveAlong(getPlayer(), steps)) {
+			return false;
+		}
+		for (Action step : steps) {
+			if (!step.performAction(performer)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@Override
+	public String toString() {
+		return "[PathMoveAction: Player=" + getPlayer() + ", x=" + 
+				getLoc().x + ", y=" + getLoc().y + ", steps=" + steps.size();
+	}
+}
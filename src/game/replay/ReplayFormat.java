@@ -0,0 +1,103 @@
+/**
+ *  File name: ReplayFormat.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game.replay;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The constants and encodings of the replay log. A log is laid out as follows:
+ * 
+ * <pre>
+ *  magic        "FRRP"
+ *  version      varint
+ *  seed         8 bytes, high byte first
+ *  policy       varint, the ordinal of the game's PlacementPolicy
+ *  width        varint
+ *  height       varint
+ *  walls        one 4 bit wall mask per square, two squares to a byte, the 
+ *               first in the low half
+ *  players      varint count, then for each player its name (as written by
+ *               DataOutput.writeUTF) and its colour (4 bytes, ARGB)
+ *  events       until the end of the log, each either
+ *                 varint 0 - the end of a turn
+ *                 varint 1 + action type ordinal, varint square index - an 
+ *                 action performed on that square
+ * </pre>
+ * 
+ * A varint is an unsigned number written 7 bits to a byte, lowest first, with
+ * the top bit of each byte set if more bytes follow.
+ *
+ * @author littlewoo
+ */
+class ReplayFormat {
+	/** the bytes at the start of every log */
+	static final byte[] MAGIC = { 'F', 'R', 'R', 'P' };
+	/** the version of the format, raised whenever a log written by an older
+	 *  version would no longer replay the same game */
+	static final int VERSION = 3;
+	/** the event code for the end of a turn */
+	static final int END_TURN = 0;
+	
+	/**
+	 * Write a varint.
+	 * 
+	 * @param out the stream to write to
+	 * @param value the value, which must not be negative
+	 * @throws IOException if the stream cannot be written to
+	 */
+	static void writeVarInt(OutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+	
+	/**
+	 * Read a varint.
+	 * 
+	 * @param in the stream to read from
+	 * @return the value, or -1 if the stream is at its end
+	 * @throws IOException if the stream cannot be read, or ends part way 
+	 * 			through the varint
+	 */
+	static int readVarInt(InputStream in) throws IOException {
+		int b = in.read();
+		if (b < 0) {
+			return -1;
+		}
+		int value = b & 0x7F;
+		for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+			if (shift > 28) {
+				throw new IOException("Varint too long");
+			}
+			b = in.read();
+			if (b < 0) {
+				throw new EOFException("Log ends part way through a varint");
+			}
+			value |= (b & 0x7F) << shift;
+		}
+		return value;
+	}
+}
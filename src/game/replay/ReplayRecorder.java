@@ -0,0 +1,180 @@
+/**
+ *  File name: ReplayRecorder.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game.replay;
+
+import game.Game;
+import game.PlayerInputData;
+import game.Walls;
+import game.action.Action;
+import game.action.PathMoveAction;
+import interfaces.ActionPerformedListener;
+import interfaces.TurnPhaseListener;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Records a game to a replay log, which {@link Replayer} can play back. The
+ * seed, placement policy, walls and players are written when the recorder is
+ * made, and then every action performed and every end of turn as they happen.
+ * The log is flushed at the end of every turn, so it is complete up to the 
+ * last turn even if the program stops without closing it.
+ * 
+ * The recorder must be made before anything has happened in the game other
+ * than placing the walls, players and initial POI tokens, and the placement
+ * policy must have been set before those were placed.
+ *
+ * @author littlewoo
+ * @see ReplayFormat
+ */
+public class ReplayRecorder 
+		implements ActionPerformedListener, TurnPhaseListener {
+	/** the stream the log is written to */
+	private final DataOutputStream out;
+	/** the width of the board, for working out square indices */
+	private final int width;
+	/** the first error in writing the log, if there has been one */
+	private IOException error;
+	
+	/**
+	 * Start recording a game.
+	 * 
+	 * @param game the game to record
+	 * @param stream the stream to write the log to
+	 * @throws IOException if the start of the log cannot be written
+	 */
+	public ReplayRecorder(Game game, OutputStream stream) throws IOException {
+		out = new DataOutputStream(new BufferedOutputStream(stream));
+		Walls walls = game.getWalls();
+		width = walls.getWidth();
+		
+		out.write(ReplayFormat.MAGIC);
+		ReplayFormat.writeVarInt(out, ReplayFormat.VERSION);
+		out.writeLong(game.getSeed());
+		ReplayFormat.writeVarInt(out, game.getPlacementPolicy().ordinal());
+		writeWalls(walls);
+		List<PlayerInputData> players = game.getPlayerData();
+		ReplayFormat.writeVarInt(out, players.size());
+		for (PlayerInputData p : players) {
+			out.writeUTF(p.name);
+			out.writeInt(p.colour.getRGB());
+		}
+		out.flush();
+		
+		game.addActionPerformedListener(this);
+		game.addTurnPhaseListener(this);
+	}
+	
+	/**
+	 * Write the wall masks, two squares to a byte.
+	 * 
+	 * @param walls the walls
+	 * @throws IOException if the log cannot be written to
+	 */
+	private void writeWalls(Walls walls) throws IOException {
+		ReplayFormat.writeVarInt(out, walls.getWidth());
+		ReplayFormat.writeVarInt(out, walls.getHeight());
+		int squares = walls.getWidth() * walls.getHeight();
+		for (int i = 0; i < squares; i += 2) {
+			int b = mask(walls, i);
+			if (i + 1 < squares) {
+				b |= mask(walls, i + 1) << 4;
+			}
+			out.write(b);
+		}
+	}
+	
+	/**
+	 * @param walls the walls
+	 * @param i the index of a square
+	 * @return the wall mask of the square
+	 */
+	private int mask(Walls walls, int i) {
+		return walls.getWallMask(i % width, i / width);
+	}
+
+	/* (non-Javadoc)
+	 * @see interfaces.ActionPerformedListener#onActionPerformed(game.action.Action)
+	 */
+	@Override
+	public void onActionPerformed(Action action) {
+		if (error != null) {
+			return;
+		}
+		try {
+			if (action instanceof PathMoveAction) {
+				for (Action step : ((PathMoveAction) action).getSteps()) {
+					writeAction(step);
+				}
+			} else {
+				writeAction(action);
+			}
+		} catch (IOException e) {
+			error = e;
+		}
+	}
+	
+	/**
+	 * Write a single square action to the log.
+	 * 
+	 * @param action the action
+	 * @throws IOException if the log cannot be written
+	 */
+	private void writeAction(Action action) throws IOException {
+		ReplayFormat.writeVarInt(out, action.getType().ordinal() + 1);
+		ReplayFormat.writeVarInt(out, 
+				action.getLoc().y * width + action.getLoc().x);
+	}
+
+	/* (non-Javadoc)
+	 * @see interfaces.TurnPhaseListener#onTurnPhaseChange(interfaces.TurnPhaseListener.TurnPhase)
+	 */
+	@Override
+	public void onTurnPhaseChange(TurnPhase phase) {
+		if (error != null || phase != TurnPhase.ADVANCE_FIRE) {
+			return;
+		}
+		try {
+			ReplayFormat.writeVarInt(out, ReplayFormat.END_TURN);
+			out.flush();
+		} catch (IOException e) {
+			error = e;
+		}
+	}
+	
+	/**
+	 * Finish the log, and close the stream. 
+	 * 
+	 * @throws IOException if there was an error writing any part of the log
+	 */
+	public void close() throws IOException {
+		try {
+			out.close();
+		} finally {
+			if (error != null) {
+				throw error;
+			}
+		}
+	}
+}
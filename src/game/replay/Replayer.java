@@ -0,0 +1,262 @@
+/**
+ *  File name: Replayer.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game.replay;
+
+import game.Game;
+import game.PlacementPolicy;
+import game.PlayerInputData;
+import game.Walls;
+import game.Walls.Direction;
+import game.action.Action;
+import game.action.Action.ActionType;
+import game.action.ActionCollection;
+import interfaces.WallProvider;
+
+import java.awt.Color;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plays back a replay log written by {@link ReplayRecorder}, without a user 
+ * interface. The game is rebuilt from the seed, placement policy, walls and 
+ * players in the log, and then each recorded action and end of turn is 
+ * applied to it in turn, so the game can be examined at any point.
+ *
+ * @author littlewoo
+ * @see ReplayFormat
+ */
+public class Replayer {
+	/** the action types, by ordinal */
+	private static final ActionType[] ACTION_TYPES = ActionType.values();
+	
+	/** the stream the log is read from */
+	private final DataInputStream in;
+	/** the game being replayed */
+	private final Game game;
+	
+	/** the number of events applied so far */
+	private int events;
+	/** the number of turns ended so far */
+	private int turns;
+	
+	/**
+	 * Read the start of a replay log, and set up the game it records, ready
+	 * for the first event.
+	 * 
+	 * @param stream the stream to read the log from
+	 * @throws IOException if the log cannot be read, or is not a replay log
+	 */
+	public Replayer(InputStream stream) throws IOException {
+		in = new DataInputStream(new BufferedInputStream(stream));
+		byte[] magic = new byte[ReplayFormat.MAGIC.length];
+		in.readFully(magic);
+		if (!Arrays.equals(magic, ReplayFormat.MAGIC)) {
+			throw new IOException("Not a replay log");
+		}
+		int version = ReplayFormat.readVarInt(in);
+		if (version != ReplayFormat.VERSION) {
+			throw new IOException("Unknown replay log version: " + version);
+		}
+		long seed = in.readLong();
+		int policy = ReplayFormat.readVarInt(in);
+		if (policy < 0 || policy >= PlacementPolicy.values().length) {
+			throw new IOException("Unknown placement policy: " + policy);
+		}
+		final Walls walls = readWalls();
+		int count = ReplayFormat.readVarInt(in);
+		List<PlayerInputData> players = new ArrayList<PlayerInputData>();
+		for (int i = 0; i < count; i++) {
+			String name = in.readUTF();
+			Color colour = new Color(in.readInt(), true);
+			players.add(new PlayerInputData(name, colour));
+		}
+		
+		game = Game.newHeadless(seed, players, new WallProvider() {
+			@Override
+			public Walls getWalls() {
+				return walls;
+			}
+		}, PlacementPolicy.values()[policy]);
+	}
+	
+	/**
+	 * Read the walls from the log.
+	 * 
+	 * @return the walls
+	 * @throws IOException if the log cannot be read
+	 */
+	private Walls readWalls() throws IOException {
+		int width = ReplayFormat.readVarInt(in);
+		int height = ReplayFormat.readVarInt(in);
+		if (width <= 0 || height <= 0) {
+			throw new IOException("Bad board size: " + width + "x" + height);
+		}
+		Walls walls = new Walls(width, height);
+		int squares = width * height;
+		for (int i = 0; i < squares; i += 2) {
+			int b = in.readUnsignedByte();
+			addWalls(walls, i, b & Walls.ALL_DIRECTIONS);
+			if (i + 1 < squares) {
+				addWalls(walls, i + 1, b >>> 4);
+			}
+		}
+		return walls;
+	}
+	
+	/**
+	 * Add the walls around a square.
+	 * 
+	 * @param walls the walls to add to
+	 * @param i the index of the square
+	 * @param mask the wall mask of the square
+	 */
+	private static void addWalls(Walls walls, int i, int mask) {
+		int x = i % walls.getWidth();
+		int y = i / walls.getWidth();
+		for (Direction d : Direction.values()) {
+			if ((mask & d.getBit()) != 0) {
+				walls.addWall(x, y, d);
+			}
+		}
+	}
+	
+	/**
+	 * @return the game being replayed, as it stands after the events applied
+	 * 			so far
+	 */
+	public Game getGame() {
+		return game;
+	}
+	
+	/**
+	 * @return the number of events applied so far
+	 */
+	public int getEvents() {
+		return events;
+	}
+	
+	/**
+	 * @return the number of turns ended so far
+	 */
+	public int getTurns() {
+		return turns;
+	}
+	
+	/**
+	 * Apply the next event in the log to the game.
+	 * 
+	 * @return false if there are no more events
+	 * @throws IOException if the log cannot be read, or the event could not 
+	 * 			have happened in the game
+	 */
+	public boolean next() throws IOException {
+		int code = ReplayFormat.readVarInt(in);
+		if (code < 0) {
+			return false;
+		}
+		if (code == ReplayFormat.END_TURN) {
+			game.onEndTurn();
+			turns ++;
+		} else {
+			if (code > ACTION_TYPES.length) {
+				throw new IOException("Unknown event " + code + 
+									  " at event " + events);
+			}
+			ActionType type = ACTION_TYPES[code - 1];
+			int square = ReplayFormat.readVarInt(in);
+			if (square < 0) {
+				throw new IOException("Log ends part way through an event");
+			}
+			Action action = findAction(type, square);
+			if (!game.performAction(action)) {
+				throw new IOException("Action " + type + " on (" + 
+									  action.getLoc().x + "," + 
+									  action.getLoc().y + ") failed at event "
+									  + events);
+			}
+		}
+		events ++;
+		return true;
+	}
+	
+	/**
+	 * Find an action among those available to the current player.
+	 * 
+	 * @param type the type of the action
+	 * @param square the index of the square the action targets
+	 * @return the action
+	 * @throws IOException if the action is not available
+	 */
+	private Action findAction(ActionType type, int square) throws IOException {
+		int x = square % game.getWidth();
+		int y = square / game.getWidth();
+		ActionCollection actions = game.getActions();
+		for (int k = 0; k < actions.size(); k++) {
+			int code = actions.getCode(k);
+			if (ActionCollection.getType(code) == type && 
+				ActionCollection.getSquare(code) == square) {
+				return actions.getAction(k);
+			}
+		}
+		throw new IOException("Action " + type + " on (" + x + "," + y + 
+							  ") is not available at event " + events);
+	}
+	
+	/**
+	 * Apply all the remaining events in the log, and close it.
+	 * 
+	 * @return the game, as it stands at the end of the log
+	 * @throws IOException if the log cannot be read, or does not match the 
+	 * 			game
+	 */
+	public Game replayAll() throws IOException {
+		try {
+			while (next()) {
+			}
+		} finally {
+			in.close();
+		}
+		return game;
+	}
+	
+	/**
+	 * Replay a log from a file, and print how far it got.
+	 * 
+	 * @param args the name of the log file
+	 * @throws IOException if the log cannot be replayed
+	 */
+	public static void main(String[] args) throws IOException {
+		long start = System.nanoTime();
+		Replayer r = new Replayer(new FileInputStream(args[0]));
+		Game game = r.replayAll();
+		long time = System.nanoTime() - start;
+		System.out.printf("%d events, %d turns replayed in %.3fms%n", 
+						  r.getEvents(), r.getTurns(), time / 1e6);
+		System.out.println("fire: " + game.getFireCount() + 
+						   ", explosions: " + game.getExplosionCount());
+	}
+}
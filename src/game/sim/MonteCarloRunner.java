@@ -0,0 +1,278 @@
+/**
+ *  File name: MonteCarloRunner.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game.sim;
+
+import game.Game;
+import game.PlacementPolicy;
+import game.PlayerInputData;
+import game.WallCreator;
+import game.Walls;
+import game.XoshiroRandomSource;
+import game.token.VictimPOIToken;
+import interfaces.POIEventListener;
+import interfaces.RandomSource;
+import interfaces.WallProvider;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays many games without a user interface, spread across all the processors
+ * of the machine, and collects their results. Every game has its own board
+ * and {@link XoshiroRandomSource}, seeded from a master seed and the number of
+ * the game, so a run can be repeated exactly whatever the number of threads.
+ * The game's bot gets a stream split from the game's. The walls are read 
+ * once, and shared by all the games.
+ * 
+ * A game is played by {@link RandomBot}s, and ends once all the victims have
+ * been rescued or killed, or after a given number of turns.
+ *
+ * @author littlewoo
+ */
+public class MonteCarloRunner {
+	/** the number of games below which a task plays its games itself, rather
+	 *  than splitting them between two smaller tasks */
+	private static final int GAMES_PER_TASK = 16;
+	/** the increment between seeds, as in SplitMix64 */
+	private static final long SEED_GAMMA = 0x9E3779B97F4A7C15L;
+	
+	/** the source of the walls, shared by all the games */
+	private final WallProvider walls;
+	/** the players in each game */
+	private final List<PlayerInputData> players;
+	/** the most turns a game lasts */
+	private final int turnLimit;
+	/** the seed from which each game's seed is made */
+	private final long masterSeed;
+	/** the way squares are chosen to place tokens on */
+	private PlacementPolicy placementPolicy = PlacementPolicy.DICE;
+	
+	/**
+	 * Make a new MonteCarloRunner.
+	 * 
+	 * @param wallProvider the source of the walls, which is only asked once
+	 * @param players the players in each game
+	 * @param turnLimit the most turns a game lasts
+	 * @param masterSeed the seed from which each game's seed is made
+	 */
+	public MonteCarloRunner(WallProvider wallProvider, 
+							List<PlayerInputData> players, 
+							int turnLimit, long masterSeed) {
+		final Walls shared = wallProvider.getWalls();
+		walls = new WallProvider() {
+			@Override
+			public Walls getWalls() {
+				return shared;
+			}
+		};
+		this.players = new ArrayList<PlayerInputData>(players);
+		this.turnLimit = turnLimit;
+		this.masterSeed = masterSeed;
+	}
+	
+	/**
+	 * Set the way squares are chosen to place tokens on, in the games played
+	 * from now on. The default is {@link PlacementPolicy#DICE}.
+	 * 
+	 * @param policy the policy
+	 */
+	public void setPlacementPolicy(PlacementPolicy policy) {
+		placementPolicy = policy;
+	}
+	
+	/**
+	 * Play a number of games, using all the processors of the machine. The
+	 * threads are shut down once the games are over.
+	 * 
+	 * @param games the number of games to play
+	 * @return the combined results
+	 */
+	public SimulationResult run(int games) {
+		ForkJoinPool pool = new ForkJoinPool();
+		try {
+			return run(games, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * Play a number of games in a given pool of threads.
+	 * 
+	 * @param games the number of games to play
+	 * @param pool the pool to play the games in
+	 * @return the combined results
+	 */
+	public SimulationResult run(int games, ForkJoinPool pool) {
+		return pool.invoke(new GamesTask(0, games));
+	}
+	
+	/**
+	 * Get the seed for one of the games of a run. Each seed is the next value
+	 * of a SplitMix64 generator started at the master seed, so neighbouring
+	 * games get unrelated seeds.
+	 * 
+	 * @param masterSeed the master seed of the run
+	 * @param game the number of the game, counting from 0
+	 * @return the seed for the game
+	 */
+	public static long seedFor(long masterSeed, int game) {
+		return mix(masterSeed + (game + 1) * SEED_GAMMA);
+	}
+	
+	/**
+	 * The SplitMix64 mixing function.
+	 * 
+	 * @param z the value to mix
+	 * @return the mixed value
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+	
+	/**
+	 * Play one game, adding its result to a set of results.
+	 * 
+	 * @param index the number of the game in the run
+	 * @param result the results to add to
+	 */
+	void playGame(int index, SimulationResult result) {
+		RandomSource source = new XoshiroRandomSource(seedFor(masterSeed, index));
+		RandomBot bot = new RandomBot(source.split());
+		Game game = Game.newHeadless(source, players, walls, placementPolicy);
+		VictimCounter victims = new VictimCounter();
+		game.addPOIEventListener(victims);
+		
+		int turns = 0;
+		while (turns < turnLimit && 
+			   victims.rescued + victims.killed < game.getVictimCount()) {
+			bot.playTurn(game);
+			game.onEndTurn();
+			result.addFire(turns, game.getFireCount());
+			turns ++;
+		}
+		result.addGame(victims.rescued, victims.killed, turns, 
+					   game.getExplosionCount());
+	}
+	
+	/**
+	 * Counts the victims rescued and killed in a game. Blank POI tokens which
+	 * are revealed are not counted.
+	 */
+	private static class VictimCounter implements POIEventListener {
+		private int rescued;
+		private int killed;
+
+		/* (non-Javadoc)
+		 * @see interfaces.POIEventListener#onPOIEvent(interfaces.POIEventListener.POIEvent)
+		 */
+		@Override
+		public void onPOIEvent(POIEvent e) {
+			if (!(e.token instanceof VictimPOIToken)) {
+				return;
+			}
+			switch (e.type) {
+				case RESCUED:
+					rescued ++;
+					break;
+				case KILLED:
+					killed ++;
+					break;
+				case PLACED:
+				default:
+					break;
+			}
+		}
+	}
+	
+	/**
+	 * A task playing a range of the games in a run. Large ranges are split in
+	 * half, and the halves played in parallel.
+	 */
+	private class GamesTask extends RecursiveTask<SimulationResult> {
+		private static final long serialVersionUID = 1L;
+		
+		/** the first game to play, and the one after the last */
+		private final int from;
+		private final int to;
+		
+		/**
+		 * Make a new GamesTask.
+		 * 
+		 * @param from the first game to play
+		 * @param to the game after the last one to play
+		 */
+		GamesTask(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.util.concurrent.RecursiveTask#compute()
+		 */
+		@Override
+		protected SimulationResult compute() {
+			if (to - from <= GAMES_PER_TASK) {
+				SimulationResult result = new SimulationResult(turnLimit);
+				for (int i = from; i < to; i++) {
+					playGame(i, result);
+				}
+				return result;
+			}
+			int mid = (from + to) >>> 1;
+			GamesTask left = new GamesTask(from, mid);
+			left.fork();
+			SimulationResult result = new GamesTask(mid, to).compute();
+			result.merge(left.join());
+			return result;
+		}
+	}
+	
+	/**
+	 * Play a run of games from the command line, and print the results.
+	 * 
+	 * @param args the number of games, then optionally the master seed and 
+	 * 			the turn limit
+	 */
+	public static void main(String[] args) {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+		int turnLimit = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+		
+		List<PlayerInputData> players = new ArrayList<PlayerInputData>();
+		players.add(new PlayerInputData("Red", Color.RED));
+		players.add(new PlayerInputData("Blue", Color.BLUE));
+		players.add(new PlayerInputData("Green", Color.GREEN));
+		
+		MonteCarloRunner runner = 
+				new MonteCarloRunner(new WallCreator(), players, turnLimit, seed);
+		long start = System.nanoTime();
+		SimulationResult result = runner.run(games);
+		long time = System.nanoTime() - start;
+		System.out.println(result);
+		System.out.printf("time: %.3fs%n", time / 1e9);
+	}
+}
@@ -0,0 +1,75 @@
+/**
+ *  File name: RandomBot.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game.sim;
+
+import game.Game;
+import game.XoshiroRandomSource;
+import game.action.ActionCollection;
+import interfaces.RandomSource;
+
+/**
+ * A player which takes turns without a user interface, by choosing at random
+ * from the actions available until there are none left.
+ *
+ * @author littlewoo
+ */
+public class RandomBot {
+	/** the source of the bot's choices */
+	private final RandomSource rand;
+	
+	/**
+	 * Make a new RandomBot. Bots made with the same seed make the same choices
+	 * in the same game.
+	 * 
+	 * @param seed the seed for the bot's choices
+	 */
+	public RandomBot(long seed) {
+		this(new XoshiroRandomSource(seed));
+	}
+	
+	/**
+	 * Make a new RandomBot, making its choices with a given source of random
+	 * numbers.
+	 * 
+	 * @param source the source of the bot's choices
+	 */
+	public RandomBot(RandomSource source) {
+		rand = source;
+	}
+	
+	/**
+	 * Take the current player's turn, performing random actions until the 
+	 * player can do nothing more. The turn is not ended.
+	 * 
+	 * @param game the game to play
+	 * @return the number of actions performed
+	 */
+	public int playTurn(Game game) {
+		int count = 0;
+		ActionCollection actions = game.getActions();
+		while (actions.size() > 0) {
+			game.performAction(actions.getAction(rand.nextInt(actions.size())));
+			count ++;
+			actions = game.getActions();
+		}
+		return count;
+	}
+}
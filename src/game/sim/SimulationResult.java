@@ -0,0 +1,213 @@
+/**
+ *  File name: SimulationResult.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package game.sim;
+
+import java.util.Arrays;
+
+/**
+ * The combined results of a number of simulated games. Results of games 
+ * played separately can be combined with {@link #merge(SimulationResult)}.
+ *
+ * @author littlewoo
+ */
+public class SimulationResult {
+	/** the number of turns between the turns whose fire is reported by
+	 *  {@link #toString()} */
+	private static final int FIRE_REPORT_INTERVAL = 10;
+	
+	/** the number of games played */
+	private int games;
+	/** the totals over all the games */
+	private long rescued;
+	private long killed;
+	private long turns;
+	private long explosions;
+	/** the least and most turns played in a game */
+	private int minTurns = Integer.MAX_VALUE;
+	private int maxTurns;
+	
+	/** for each turn, the total of the fire on the board at the end of that 
+	 *  turn over the games which lasted that long */
+	private long[] fireTotals;
+	/** for each turn, the number of games which lasted that long */
+	private int[] gamesAtTurn;
+	
+	/**
+	 * Make a new, empty SimulationResult.
+	 * 
+	 * @param turnLimit the most turns any game will be played for
+	 */
+	public SimulationResult(int turnLimit) {
+		fireTotals = new long[turnLimit];
+		gamesAtTurn = new int[turnLimit];
+	}
+	
+	/**
+	 * Record the fire on the board at the end of a turn of a game.
+	 * 
+	 * @param turn the turn, counting from 0
+	 * @param fire the number of squares with fire on them
+	 */
+	public void addFire(int turn, int fire) {
+		fireTotals[turn] += fire;
+		gamesAtTurn[turn] ++;
+	}
+	
+	/**
+	 * Record the result of a finished game. The fire in each turn should 
+	 * already have been recorded with {@link #addFire(int, int)}.
+	 * 
+	 * @param rescued the number of victims rescued
+	 * @param killed the number of victims killed
+	 * @param turns the number of turns played
+	 * @param explosions the number of explosions
+	 */
+	public void addGame(int rescued, int killed, int turns, int explosions) {
+		games ++;
+		this.rescued += rescued;
+		this.killed += killed;
+		this.turns += turns;
+		this.explosions += explosions;
+		minTurns = Math.min(minTurns, turns);
+		maxTurns = Math.max(maxTurns, turns);
+	}
+	
+	/**
+	 * Add the results of another set of games to this one.
+	 * 
+	 * @param other the other results
+	 */
+	public void merge(SimulationResult other) {
+		games += other.games;
+		rescued += other.rescued;
+		killed += other.killed;
+		turns += other.turns;
+		explosions += other.explosions;
+		minTurns = Math.min(minTurns, other.minTurns);
+		maxTurns = Math.max(maxTurns, other.maxTurns);
+		if (other.fireTotals.length > fireTotals.length) {
+			fireTotals = Arrays.copyOf(fireTotals, other.fireTotals.length);
+			gamesAtTurn = Arrays.copyOf(gamesAtTurn, other.gamesAtTurn.length);
+		}
+		for (int t = 0; t < other.fireTotals.length; t++) {
+			fireTotals[t] += other.fireTotals[t];
+			gamesAtTurn[t] += other.gamesAtTurn[t];
+		}
+	}
+	
+	/**
+	 * @return the number of games played
+	 */
+	public int getGames() {
+		return games;
+	}
+	
+	/**
+	 * @return the total number of victims rescued
+	 */
+	public long getRescued() {
+		return rescued;
+	}
+	
+	/**
+	 * @return the total number of victims killed
+	 */
+	public long getKilled() {
+		return killed;
+	}
+	
+	/**
+	 * @return the total number of turns played
+	 */
+	public long getTurns() {
+		return turns;
+	}
+	
+	/**
+	 * @return the least number of turns played in a game
+	 */
+	public int getMinTurns() {
+		return games == 0 ? 0 : minTurns;
+	}
+	
+	/**
+	 * @return the most turns played in a game
+	 */
+	public int getMaxTurns() {
+		return maxTurns;
+	}
+	
+	/**
+	 * @return the total number of explosions
+	 */
+	public long getExplosions() {
+		return explosions;
+	}
+	
+	/**
+	 * Get the mean amount of fire on the board at the end of a turn, over the
+	 * games which lasted that long.
+	 * 
+	 * @param turn the turn, counting from 0
+	 * @return the mean number of squares with fire on them, or 0 if no game 
+	 * 			lasted that long
+	 */
+	public double getMeanFire(int turn) {
+		if (turn >= gamesAtTurn.length || gamesAtTurn[turn] == 0) {
+			return 0;
+		}
+		return (double) fireTotals[turn] / gamesAtTurn[turn];
+	}
+	
+	/**
+	 * @param turn the turn, counting from 0
+	 * @return the number of games which lasted until the end of the turn
+	 */
+	public int getGamesAtTurn(int turn) {
+		return turn < gamesAtTurn.length ? gamesAtTurn[turn] : 0;
+	}
+	
+	/**
+	 * Express these results as a string. The mean fire on the board is given
+	 * for the first turn, every tenth turn after it, and the last turn any 
+	 * game reached.
+	 */
+	public String toString() {
+		double n = Math.max(games, 1);
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("games: %d%n" +
+								"rescued per game: %.3f%n" +
+								"killed per game: %.3f%n" +
+								"turns per game: %.3f (min %d, max %d)%n" +
+								"explosions per game: %.3f%n" +
+								"mean fire at end of turn:",
+								games, rescued / n, killed / n, turns / n, 
+								getMinTurns(), maxTurns, explosions / n));
+		for (int t = 0; t < maxTurns; t++) {
+			if (t % FIRE_REPORT_INTERVAL == 0 || t == maxTurns - 1) {
+				sb.append(String.format("%n  turn %d: %.3f (%d games)", 
+										t + 1, getMeanFire(t), 
+										getGamesAtTurn(t)));
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -20,9 +20,6 @@
  */
 package game.token;
 
-import ui.drawing.POITokenPainter;
-import ui.drawing.TokenPainter;
-
 /**
  *
  * @author littlewoo
@@ -35,13 +32,4 @@ public class BlankPOIToken extends POIFaceToken {
 	public BlankPOIToken(POIQuestionMarkToken reverse) {
 		super(reverse);
 	}
-
-	/* (non-Javadoc)
-	 * @see game.token.Token#getPainter()
-	 */
-	@Override
-	public TokenPainter getPainter() {
-		return new POITokenPainter("");
-	}
-
 }
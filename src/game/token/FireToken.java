@@ -20,21 +20,10 @@
  */
 package game.token;
 
-import ui.drawing.TokenPainter;
-import ui.drawing.FireTokenPainter;
-
 /**
  * A token representing Fire.
  *
  * @author littlewoo
  */
 public class FireToken extends ThreatToken {
-
-	/**
-	 * @return the painter for this token
-	 */
-	@Override
-	public TokenPainter getPainter() {
-		return new FireTokenPainter();
-	}
 }
@@ -20,9 +20,6 @@
  */
 package game.token;
 
-import ui.drawing.POITokenPainter;
-import ui.drawing.TokenPainter;
-
 /**
  *
  * @author littlewoo
@@ -47,14 +44,6 @@ public class POIQuestionMarkToken implements POIToken {
 		}
 	}
 
-	/* (non-Javadoc)
-	 * @see game.token.Token#getPainter()
-	 */
-	@Override
-	public TokenPainter getPainter() {
-		return new POITokenPainter("?");
-	}
-
 	/* (non-Javadoc)
 	 * @see game.token.FlippableToken#flip()
 	 */
@@ -20,12 +20,8 @@
  */
 package game.token;
 
-
 import java.awt.Color;
 
-import ui.drawing.PlayerTokenPainter;
-import ui.drawing.TokenPainter;
-
 /**
  * A token for players in the game.
  *
@@ -61,13 +57,4 @@ public class PlayerToken implements MovableToken {
 	public String getName() {
 		return name;
 	}
-	
-	/**
-	 * @return the painter for this token
-	 */
-	@Override
-	public TokenPainter getPainter() {
-		return new PlayerTokenPainter(name, colour);
-	}
-
 }
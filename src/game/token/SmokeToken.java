@@ -19,9 +19,6 @@
  *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
  */
 package game.token;
-
-import ui.drawing.SmokeTokenPainter;
-import ui.drawing.TokenPainter;
 
 /**
  * A token representing smoke.
@@ -29,12 +26,4 @@ import ui.drawing.TokenPainter;
  * @author littlewoo
  */
 public class SmokeToken extends ThreatToken {
-
-	/**
-	 * @return the painter for this token
-	 */
-	@Override
-	public TokenPainter getPainter() {
-		return new SmokeTokenPainter();
-	}
 }
@@ -20,19 +20,12 @@
  */
 package game.token;
 
-import ui.drawing.TokenPainter;
-
 /**
- * An interface for all tokens.
+ * An interface for all tokens. Tokens carry no knowledge of how they are
+ * drawn, so that the rules engine can run without any of the user interface 
+ * classes loaded; the painter for a token is looked up by the ui.
  *
  * @author littlewoo
  */
 public interface Token {
-
-	/**
-	 * Get the tokenpainter for this token.
-	 * 
-	 * @return the tokenpainter
-	 */
-	TokenPainter getPainter();
 }
@@ -20,9 +20,6 @@
  */
 package game.token;
 
-import ui.drawing.TokenPainter;
-import ui.drawing.TokenStackPainter;
-
 /**
  *
  * @author littlewoo
@@ -30,16 +27,16 @@ import ui.drawing.TokenStackPainter;
 public class TokenStackToken implements Token {
 	
 	private int count;
-	private final TokenStackPainter painter;
+	/** the token of which this is a stack */
+	private final Token token;
 	
 	public TokenStackToken(Token t) {
 		count = 0;
-		painter = new TokenStackPainter(t.getPainter());
+		token = t;
 	}
 	
 	public void setCount(int val) {
 		this.count = val;
-		painter.setCount(val);
 	}
 	
 	public void increment() {
@@ -54,12 +51,11 @@ public class TokenStackToken implements Token {
 		return count;
 	}
 
-	/* (non-Javadoc)
-	 * @see game.token.Token#getPainter()
+	/**
+	 * @return the token of which this is a stack
 	 */
-	@Override
-	public TokenPainter getPainter() {
-		return painter;
+	public Token getToken() {
+		return token;
 	}
 
 }
@@ -20,9 +20,6 @@
  */
 package game.token;
 
-import ui.drawing.POITokenPainter;
-import ui.drawing.TokenPainter;
-
 /**
  *
  * @author littlewoo
@@ -37,14 +34,4 @@ public class VictimPOIToken extends POIFaceToken {
 	public VictimPOIToken(POIQuestionMarkToken reverse) {
 		super(reverse);
 	}
-
-	/* (non-Javadoc)
-	 * @see game.token.Token#getPainter()
-	 */
-	@Override
-	public TokenPainter getPainter() {
-		// TODO Auto-generated method stub
-		return new POITokenPainter("V");
-	}
-
 }
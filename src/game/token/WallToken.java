@@ -20,13 +20,9 @@
  */
 package game.token;
 
+import game.Walls;
 import game.Walls.Direction;
 
-import java.util.Set;
-
-import ui.drawing.TokenPainter;
-import ui.drawing.WallTokenPainter;
-
 /**
  * Token for drawing walls. Note that this token only represents the portion of
  * the wall within a single square. The other square needs its own WallToken to
@@ -36,23 +32,31 @@ import ui.drawing.WallTokenPainter;
  */
 public class WallToken implements Token {
 	
-	private final WallTokenPainter tp;
+	/** the walls on the board */
+	private final Walls walls;
+	/** the square this token represents */
+	private final int x;
+	private final int y;
 	
 	/**
 	 * Construct a new WallToken
 	 * 
-	 * @param dirs the directions in which there are walls, from this square
+	 * @param walls the walls on the board
+	 * @param x the x coordinate of the square
+	 * @param y the y coordinate of the square
 	 */
-	public WallToken(Set<Direction> dirs) {
-		tp = new WallTokenPainter(dirs);
+	public WallToken(Walls walls, int x, int y) {
+		this.walls = walls;
+		this.x = x;
+		this.y = y;
 	}
 
-	/* (non-Javadoc)
-	 * @see game.token.Token#getPainter()
+	/**
+	 * @return a mask with the bit {@link Direction#getBit()} set for each 
+	 * 			direction in which there is a wall, from this square
 	 */
-	@Override
-	public TokenPainter getPainter() {
-		return tp;
+	public int getWallMask() {
+		return walls.getWallMask(x, y);
 	}
 
 }
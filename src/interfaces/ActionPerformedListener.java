@@ -0,0 +1,38 @@
+/**
+ *  File name: ActionPerformedListener.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package interfaces;
+
+import game.action.Action;
+
+/**
+ * A listener for listening for actions performed in a game.
+ *
+ * @author littlewoo
+ */
+public interface ActionPerformedListener {
+	/**
+	 * Called after an action has been performed successfully. Actions which
+	 * could not be performed are not passed on.
+	 * 
+	 * @param action the action performed
+	 */
+	public void onActionPerformed(Action action);
+}
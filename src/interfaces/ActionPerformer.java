@@ -25,6 +25,7 @@ import game.action.Action;
 import game.token.VictimPOIToken;
 
 import java.awt.Point;
+import java.util.List;
 
 /**
  * Provides actions for square selections, and performs a selected action.
@@ -60,4 +61,14 @@ public interface ActionPerformer {
 	 * @return true if the action was successfully performed
 	 */
 	public boolean moveVictimToken(VictimPOIToken victim, Point loc);
+	
+	/**
+	 * Check whether a player could make a series of single square moves, one 
+	 * after the other, without any of them failing. AP is not checked.
+	 * 
+	 * @param p the player to move
+	 * @param steps the single square moves, in order
+	 * @return true if every move could be performed
+	 */
+	public boolean canMoveAlong(Player p, List<Action> steps);
 }
@@ -41,4 +41,12 @@ public interface ActionStore {
 	 * @return all of the actions relevant to a particular location
 	 */
 	public List<Action> getActions(Point p);
+	
+	/**
+	 * @param x the x coordinate of a location
+	 * @param y the y coordinate of a location
+	 * @return all of the actions relevant to the location, or null if there 
+	 * 			are none
+	 */
+	public List<Action> getActions(int x, int y);
 }
@@ -0,0 +1,48 @@
+/**
+ *  File name: RandomSource.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package interfaces;
+
+/**
+ * Interface for a source of random numbers, such as a dice roller uses. A 
+ * source is not safe to use from more than one thread at once; instead, each
+ * thread should be given its own source made with {@link #split()}.
+ * 
+ * @author littlewoo
+ */
+public interface RandomSource {
+	
+	/**
+	 * Get a random number, all of whose values are equally likely.
+	 * 
+	 * @param bound the number of possible values, which must be positive
+	 * @return a number from 0 up to but not including the bound
+	 */
+	public int nextInt(int bound);
+	
+	/**
+	 * Make a new source, whose numbers are unrelated to those of this one. 
+	 * The same sequence of calls always gives the same new source, so a 
+	 * program which splits its sources in the same way is reproducible.
+	 * 
+	 * @return the new source
+	 */
+	public RandomSource split();
+}
@@ -21,12 +21,10 @@
 package ui;
 
 import game.Board.TokenChangeEvent;
-import game.Board.TokenChangeListener;
 import game.Game;
 import game.action.Action;
 import game.action.Action.ActionType;
 import game.action.ActionCollection;
-import game.token.MovableToken;
 import interfaces.ActionPerformer;
 import interfaces.ActionView;
 
@@ -34,6 +32,7 @@ import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
@@ -44,32 +43,51 @@ import javax.swing.JMenuItem;
 import javax.swing.JPopupMenu;
 
 import ui.drawing.ActionPainter;
+import ui.drawing.TokenPainter;
+import ui.drawing.TokenPainterFactory;
+import ui.drawing.TokenPaintingManager.Layer;
 
 /**
- * The panel showing the board.
+ * The panel showing the board. The board is painted from the latest 
+ * {@link BoardSnapshot}, which is made on the engine thread, so painting 
+ * never reads the game itself.
  * 
  * @author littlewoo
  */
-public class BoardPanel extends TokenGridPanel 
-						implements TokenChangeListener, ActionView {
+public class BoardPanel extends TokenGridPanel {
 	
 	private static final long serialVersionUID = 6945410881583290262L;
 	
-	/** The width and height of the board (in squares) */
-	private final static int WIDTH = Game.WIDTH;
-	private final static int HEIGHT = Game.HEIGHT;
-	
 	/** the size of one of the squares on the board, in pixels */
 	public final static int CELL_SIZE = 95;
 	/** the size of the margins around the board */
 	private final static int MARGIN_SIZE = 25;
 	
-	/** the painter which paints possible actions onto the panel */
-	private final ActionPainter actionPainter;
-	/** The list of currently available actions */
-	private ActionCollection actions;
+	/** the painters for each kind of threat and point of interest, indexed 
+	 *  by their values in a snapshot */
+	private static final TokenPainter[] THREAT_PAINTERS = {
+		null, TokenPainterFactory.FIRE, TokenPainterFactory.SMOKE
+	};
+	private static final TokenPainter[] POI_PAINTERS = {
+		null, TokenPainterFactory.QUESTION_MARK, TokenPainterFactory.BLANK, 
+		TokenPainterFactory.VICTIM
+	};
+	
+	/** the latest snapshot of the board, or null if none has been made */
+	private volatile BoardSnapshot snapshot;
+	/** the version of the actions whose markers have been hidden by a click, 
+	 *  and of those from which an action has been chosen */
+	private int markersHiddenVersion = -1;
+	private int actionsUsedVersion = -1;
+	/** the builder which makes the snapshots on the engine thread */
+	private final SnapshotBuilder snapshotBuilder;
+	/** working space for the bounds of the clip */
+	private final Rectangle clip = new Rectangle();
+	
 	/** the performer which performs actions for this panel */
 	private final ActionPerformer actionPerformer;
+	/** the executor which runs the game */
+	private final EngineExecutor engine;
 	/** default action on left click */
 	private final static ActionType DEFAULT_ACTION = ActionType.MOVE; 
 	
@@ -77,13 +95,14 @@ public class BoardPanel extends TokenGridPanel
 	 * Make a new BoardPanel
 	 * 
 	 * @param game the game represented by this board
+	 * @param engine the executor which runs the game
 	 */
-	public BoardPanel(Game game) {
-		super(CELL_SIZE, MARGIN_SIZE, WIDTH, HEIGHT);
+	public BoardPanel(Game game, EngineExecutor engine) {
+		super(CELL_SIZE, MARGIN_SIZE, game.getWidth(), game.getHeight());
 		setOpaque(true);
 		setBorder(null);
-		actionPainter = new ActionPainter();
 		actionPerformer = game;
+		this.engine = engine;
 		
 		setBackground(new Color(160, 82, 45));
 		setForeground(Color.WHITE);
@@ -96,24 +115,134 @@ public class BoardPanel extends TokenGridPanel
 			}			
 		});
 		
-		game.addTokenChangeListener(this);
-		game.placeWalls();
-		game.placePlayers();
+		snapshotBuilder = new SnapshotBuilder(game.getWidth(), 
+				game.getHeight(), engine, this);
+		game.addTokenChangeBatchListener(snapshotBuilder);
+	}
+	
+	/**
+	 * @return the view to be given the game's actions, on the engine thread
+	 */
+	public ActionView getActionView() {
+		return snapshotBuilder;
 	}
 	
 	/**
-	 * Paint this component. Draw the grid as currently stored.
+	 * Paint this component. Draw the grid, and then the latest snapshot of 
+	 * the board.
 	 * 
 	 * @param g the graphics instance to draw onto
 	 */
 	@Override
 	public void paintComponent(Graphics g) {
-		System.out.println("Painting board panel");
         Graphics2D g2 = (Graphics2D) g;
         super.paintComponent(g2);
-        actionPainter.paintAll(g2);
+        BoardSnapshot s = snapshot;
+        if (s != null) {
+        	paintSnapshot(g2, s);
+        }
     }
 	
+	/**
+	 * Paint the squares of a snapshot whose tokens could show in the clip. 
+	 * Only the rows and columns which reach the clip are visited, so painting
+	 * a single cell takes the same time however large the board is. Each 
+	 * square is painted a layer at a time: threats, then points of interest, 
+	 * then players, then the action markers.
+	 * 
+	 * @param g the graphics instance to draw onto
+	 * @param s the snapshot
+	 */
+	private void paintSnapshot(Graphics2D g, BoardSnapshot s) {
+		clip.setBounds(Integer.MIN_VALUE / 2, Integer.MIN_VALUE / 2, 
+					   Integer.MAX_VALUE, Integer.MAX_VALUE);
+		g.getClipBounds(clip);
+		boolean threats = isLayerVisible(Layer.THREATS);
+		boolean pois = isLayerVisible(Layer.POIS);
+		boolean players = isLayerVisible(Layer.PLAYERS);
+		boolean markers = isLayerVisible(Layer.OVERLAYS) && 
+						  s.getActionsVersion() != markersHiddenVersion;
+		int width = s.getWidth();
+		int firstX = getFirstColumn(clip);
+		int endX = getEndColumn(clip);
+		int endY = getEndRow(clip);
+		for (int y = getFirstRow(clip); y < endY; y++) {
+			int cy = getCellY(y);
+			for (int x = firstX; x < endX; x++) {
+				int cx = getCellX(x);
+				int i = y * width + x;
+				if (threats && s.getThreat(i) != BoardSnapshot.NO_THREAT) {
+					THREAT_PAINTERS[s.getThreat(i)].draw(g, cx, cy);
+				}
+				if (pois && s.getPOI(i) != BoardSnapshot.NO_POI) {
+					POI_PAINTERS[s.getPOI(i)].draw(g, cx, cy);
+				}
+				if (players) {
+					for (int bits = s.getPlayers(i); bits != 0; 
+						 bits &= bits - 1) {
+						int k = Integer.numberOfTrailingZeros(bits);
+						TokenPainterFactory.getPainter(s.getPlayerToken(k))
+										   .draw(g, cx, cy);
+					}
+				}
+				if (markers && s.isMarked(i)) {
+					ActionPainter.paintMarker(g, cx, cy);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Show a new snapshot of the board, repainting the squares which differ 
+	 * from the last one. Must be called on the event dispatch thread.
+	 * 
+	 * @param s the snapshot
+	 */
+	void showSnapshot(BoardSnapshot s) {
+		BoardSnapshot old = snapshot;
+		snapshot = s;
+		if (old == null) {
+			repaint();
+			return;
+		}
+		boolean markersChanged = 
+				(old.getActionsVersion() == markersHiddenVersion) !=
+				(s.getActionsVersion() == markersHiddenVersion);
+		int width = s.getWidth();
+		for (int y = 0; y < s.getHeight(); y++) {
+			for (int x = 0; x < width; x++) {
+				int i = y * width + x;
+				if (s.differsAt(old, i) || (markersChanged && 
+						(s.isMarked(i) || old.isMarked(i)))) {
+					repaintCell(x, y);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Add or remove walls, which are drawn as part of the background. Must be 
+	 * called on the event dispatch thread.
+	 * 
+	 * @param changes the changes to the wall tokens
+	 */
+	void onWallChanges(List<TokenChangeEvent> changes) {
+		for (TokenChangeEvent e : changes) {
+			switch (e.getChange()) {
+				case REMOVE:
+					removeToken(e.getToken());
+					break;
+				case REPLACE:
+					removeToken(e.getReplacedToken());
+					addToken(e.getToken(), new Point(e.getX(), e.getY()));
+					break;
+				default:
+					addToken(e.getToken(), new Point(e.getX(), e.getY()));
+					break;
+			}
+		}
+	}
+	
 	/**
 	 * Respond to an ordinary mouse click, by calculating the square in which 
 	 * the click came, and then signalling listeners of the selected square.
@@ -123,8 +252,15 @@ public class BoardPanel extends TokenGridPanel
 	 * @param button the button used to click
 	 */
 	private void respondToMouseClick(int x, int y, int button) {
-		actionPainter.clearActions();
-		if (x < leftMargin || x > rightMargin || 
+		BoardSnapshot s = snapshot;
+		if (s == null) {
+			return;
+		}
+		hideActionMarkers(s);
+		ActionCollection actions = s.getActions();
+		if (actions == null || s.getActionsVersion() == actionsUsedVersion) {
+			return;
+		} else if (x < leftMargin || x > rightMargin || 
 			y < topMargin || y > bottomMargin) {
 			System.out.println("Click outside boundaries: " + x + ", " + y);
 		} else {
@@ -132,8 +268,10 @@ public class BoardPanel extends TokenGridPanel
 			y = y - topMargin;
 			int xSquare = x / CELL_SIZE;
 			int ySquare = y / CELL_SIZE;
-			Point p = new Point(xSquare, ySquare);
-			List<Action> acts = actions.getActions(p);
+			List<? extends Action> acts = actions.getActions(xSquare, ySquare);
+			if (acts == null) {
+				acts = actions.getPathActions(xSquare, ySquare);
+			}
 			if (acts != null && acts.size() > 0) {
 				if (button == MouseEvent.BUTTON1) {
 					for (Action a : acts) {
@@ -149,13 +287,41 @@ public class BoardPanel extends TokenGridPanel
 	}
 	
 	/** 
-	 * Perform a given action
+	 * Perform a given action, on the engine thread. No more actions can be 
+	 * chosen until the game has sent the actions which follow this one.
 	 * 
 	 * @param a the action to perform
 	 */
-	private void performAction(Action a) {
-		actionPainter.clearActions();
-		actionPerformer.performAction(a);
+	private void performAction(final Action a) {
+		BoardSnapshot s = snapshot;
+		hideActionMarkers(s);
+		actionsUsedVersion = s.getActionsVersion();
+		engine.execute(new Runnable() {
+			@Override
+			public void run() {
+				actionPerformer.performAction(a);
+			}
+		});
+	}
+
+	/**
+	 * Stop showing the markers of the actions in a snapshot, repainting the 
+	 * cells they were in. They are shown again when the next set of actions 
+	 * arrives.
+	 * 
+	 * @param s the snapshot being shown
+	 */
+	private void hideActionMarkers(BoardSnapshot s) {
+		if (s.getActionsVersion() == markersHiddenVersion) {
+			return;
+		}
+		markersHiddenVersion = s.getActionsVersion();
+		int width = s.getWidth();
+		for (int i = 0; i < width * s.getHeight(); i++) {
+			if (s.isMarked(i)) {
+				repaintCell(i % width, i / width);
+			}
+		}
 	}
 
 	/**
@@ -165,7 +331,7 @@ public class BoardPanel extends TokenGridPanel
 	 * @param x the x coordinate to display the menu
 	 * @param y the y coordinate to display the menu
 	 */
-	private void showActionMenu(List<Action> actions, int x, int y) {
+	private void showActionMenu(List<? extends Action> actions, int x, int y) {
 		if (actions != null && actions.size() > 0) {
 			JPopupMenu menu = new JPopupMenu();
 			for (final Action a : actions) {
@@ -183,42 +349,4 @@ public class BoardPanel extends TokenGridPanel
 			menu.show(this, x, y);
 		}
 	}
-
-	/**
-	 * Respond to a token change event. The action taken depends on the type of 
-	 * change: adding a token to the drawing manager or removing it. 
-	 * 
-	 * @param e the token change event
-	 */
-	@Override
-	public void onTokenChange(TokenChangeEvent e) {		
-		Point p = new Point(e.getX(), e.getY());
-		switch (e.getChange()) {
-			case ADD:
-				super.addToken(e.getToken(), p);
-				break;
-			case REMOVE:
-				super.removeToken(e.getToken());
-				break;
-			case MOVE:
-				super.moveToken((MovableToken) e.getToken(), p);
-				break;
-		}
-		
-		repaint();
-	}
-
-	/* (non-Javadoc)
-	 * @see interfaces.ActionView#displayActions(java.util.List)
-	 */
-	@Override
-	public void displayActions(ActionCollection actions) {
-		actionPainter.clearActions();
-		this.actions = actions;
-		for (Action a : actions.getActions()) {
-			Point p = getCellLoc(a.getLoc());
-			actionPainter.addAction(a, p);
-		}
-		repaint();
-	}
 }
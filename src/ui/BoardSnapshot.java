@@ -0,0 +1,185 @@
+/**
+ *  File name: BoardSnapshot.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ui;
+
+import game.action.ActionCollection;
+import game.token.PlayerToken;
+
+/**
+ * An unchanging picture of what is on the board at one moment: the threat, 
+ * point of interest and players on each square, and the squares with an 
+ * action available. Snapshots are made on the engine thread and painted on 
+ * the event dispatch thread, so that painting never reads the game while it
+ * is being changed.
+ * 
+ * Squares are numbered row by row, so the square (x, y) has the index
+ * <code>y * width + x</code>.
+ *
+ * @author littlewoo
+ */
+public class BoardSnapshot {
+	/** the values for the threat on a square */
+	public static final byte NO_THREAT = 0;
+	public static final byte FIRE = 1;
+	public static final byte SMOKE = 2;
+	
+	/** the values for the point of interest on a square */
+	public static final byte NO_POI = 0;
+	public static final byte QUESTION_MARK = 1;
+	public static final byte BLANK = 2;
+	public static final byte VICTIM = 3;
+	
+	/** the most players which can be shown, one bit each */
+	public static final int MAX_PLAYERS = 8;
+	
+	/** the dimensions of the board */
+	private final int width;
+	private final int height;
+	
+	/** the threat on each square */
+	private final byte[] threats;
+	/** the point of interest on each square */
+	private final byte[] pois;
+	/** the players on each square, a bit for each player */
+	private final byte[] players;
+	/** the squares with an action available on them */
+	private final boolean[] markers;
+	
+	/** the players' tokens, in the order of their bits */
+	private final PlayerToken[] playerTokens;
+	/** the actions available, or null if there are none */
+	private final ActionCollection actions;
+	/** the number of sets of actions sent to the board before these */
+	private final int actionsVersion;
+	
+	/**
+	 * Make a new BoardSnapshot. The arrays are kept, not copied, so must not 
+	 * be changed afterwards.
+	 * 
+	 * @param width the width of the board
+	 * @param height the height of the board
+	 * @param threats the threat on each square
+	 * @param pois the point of interest on each square
+	 * @param players the players on each square
+	 * @param markers the squares with an action available
+	 * @param playerTokens the players' tokens, in the order of their bits
+	 * @param actions the actions available, or null if there are none
+	 * @param actionsVersion the number of sets of actions sent before these
+	 */
+	BoardSnapshot(int width, int height, byte[] threats, byte[] pois, 
+				  byte[] players, boolean[] markers, 
+				  PlayerToken[] playerTokens, ActionCollection actions, 
+				  int actionsVersion) {
+		this.width = width;
+		this.height = height;
+		this.threats = threats;
+		this.pois = pois;
+		this.players = players;
+		this.markers = markers;
+		this.playerTokens = playerTokens;
+		this.actions = actions;
+		this.actionsVersion = actionsVersion;
+	}
+	
+	/**
+	 * @return the width of the board
+	 */
+	public int getWidth() {
+		return width;
+	}
+	
+	/**
+	 * @return the height of the board
+	 */
+	public int getHeight() {
+		return height;
+	}
+	
+	/**
+	 * @param i the index of the square
+	 * @return the threat on the square: NO_THREAT, FIRE or SMOKE
+	 */
+	public byte getThreat(int i) {
+		return threats[i];
+	}
+	
+	/**
+	 * @param i the index of the square
+	 * @return the point of interest on the square: NO_POI, QUESTION_MARK, 
+	 * 			BLANK or VICTIM
+	 */
+	public byte getPOI(int i) {
+		return pois[i];
+	}
+	
+	/**
+	 * @param i the index of the square
+	 * @return the players on the square, with bit k set if the player given 
+	 * 			by {@link #getPlayerToken(int)} k is there
+	 */
+	public int getPlayers(int i) {
+		return players[i] & 0xff;
+	}
+	
+	/**
+	 * @param k the number of a player's bit
+	 * @return the player's token
+	 */
+	public PlayerToken getPlayerToken(int k) {
+		return playerTokens[k];
+	}
+	
+	/**
+	 * @param i the index of the square
+	 * @return true if there is an action available on the square
+	 */
+	public boolean isMarked(int i) {
+		return markers[i];
+	}
+	
+	/**
+	 * @return the actions available, or null if there are none
+	 */
+	public ActionCollection getActions() {
+		return actions;
+	}
+	
+	/**
+	 * @return the number of sets of actions sent to the board before the ones
+	 * 			in this snapshot, so that a new set can be told apart from the
+	 * 			last one
+	 */
+	public int getActionsVersion() {
+		return actionsVersion;
+	}
+	
+	/**
+	 * @param other another snapshot of the same board
+	 * @param i the index of a square
+	 * @return true if the square looks different in the other snapshot
+	 */
+	public boolean differsAt(BoardSnapshot other, int i) {
+		return threats[i] != other.threats[i] || pois[i] != other.pois[i] ||
+			   players[i] != other.players[i] || 
+			   markers[i] != other.markers[i] ||
+			   ((players[i] != 0) && playerTokens != other.playerTokens);
+	}
+}
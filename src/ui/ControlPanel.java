@@ -36,7 +36,6 @@ import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.SwingConstants;
-import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.border.BevelBorder;
 import javax.swing.border.CompoundBorder;
@@ -53,6 +52,8 @@ import java.awt.Component;
 public class ControlPanel extends JPanel {
 	/** The object listening to this panel's end turn events */
 	private TurnTaker turnTaker; 
+	/** the executor which runs the game */
+	private final EngineExecutor engine;
 	
 	/** the panel displaying the results of the previous dice roll */
 	private DicePanel dicePanel;
@@ -71,9 +72,11 @@ public class ControlPanel extends JPanel {
 	 * 
 	 * @param turnTaker the listener which consumes this panel's 'end turn' 
 	 * 					events
+	 * @param engine the executor which runs the game
 	 */
-	public ControlPanel(TurnTaker turnTaker) {
+	public ControlPanel(TurnTaker turnTaker, EngineExecutor engine) {
 		this.turnTaker = turnTaker;
+		this.engine = engine;
 		makePanel();
 	}
 	
@@ -123,7 +126,7 @@ public class ControlPanel extends JPanel {
 			}
 		};
 		
-		updatePlayer();
+		updatePlayer(turnTaker.getCurrentPlayer());
 		
 		JPanel actionPanel = new JPanel();
 		actionPanel.setBackground(Color.BLACK);
@@ -135,12 +138,12 @@ public class ControlPanel extends JPanel {
 		endTurnButton.addActionListener(new ActionListener() {
 			@Override
 			public void actionPerformed(ActionEvent e) {
-				Thread t = new Thread() {
+				engine.execute(new Runnable() {
+					@Override
 					public void run() {
 						endTurn();
 					}
-				};
-				t.start();
+				});
 			}
 		});
 		actionPanel.add(endTurnButton);
@@ -164,23 +167,8 @@ public class ControlPanel extends JPanel {
 		
 		turnPhaseView = new TurnPhaseView() {
 			@Override
-			public void display(final String text) {
-				Thread t = new Thread() {
-					public void run() {
-						SwingUtilities.invokeLater(new Runnable() {
-							@Override
-							public void run() {
-								turnPhaseLabel.setText(text);
-							}
-						});
-					}
-				};
-				t.start();
-				try {
-					Thread.sleep(1000);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
+			public void display(String text) {
+				turnPhaseLabel.setText(text);
 			}
 		};
 	}
@@ -213,20 +201,28 @@ public class ControlPanel extends JPanel {
 	
 	/**
 	 * Update the view of who the current player is. 
+	 * 
+	 * @param p the current player
 	 */
-	private void updatePlayer() {
-		Player p = turnTaker.getCurrentPlayer();
+	private void updatePlayer(Player p) {
 		PlayerToken t = p.getToken();
 		currentPlayerLabel.setBackground(t.getColour());
 		currentPlayerLabel.setText(t.getName());
 	}
 
 	/**
-	 * End the current turn
+	 * End the current turn. Run on the engine thread; the view of the current
+	 * player is updated once the updates made during the turn have been shown.
 	 */
 	private void endTurn() {
 		turnTaker.onEndTurn();
-		updatePlayer();
+		final Player p = turnTaker.getCurrentPlayer();
+		engine.publish(new Runnable() {
+			@Override
+			public void run() {
+				updatePlayer(p);
+			}
+		});
 	}
 	
 	private static final long serialVersionUID = 1895792502596588154L;
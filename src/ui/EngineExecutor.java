@@ -0,0 +1,256 @@
+/**
+ *  File name: EngineExecutor.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ui;
+
+import game.DiceRoller.DieResult;
+import game.token.PlayerToken;
+import interfaces.APListener;
+import interfaces.DiceRollListener;
+import interfaces.POIEventListener;
+import interfaces.TurnPhaseListener;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * The thread which runs the game for the user interface. Everything which 
+ * changes the game is run on a single engine thread, so the event dispatch 
+ * thread never waits for the game, and the game is never changed while it is 
+ * being read.
+ * 
+ * The game's listeners are called on the engine thread, so those belonging to
+ * the user interface are wrapped by the methods of this class. The wrappers 
+ * put each update on a queue, which the event dispatch thread works through 
+ * in order. The board is updated through the same queue, with snapshots made
+ * by a {@link SnapshotBuilder}. Between the phases of a turn the queue is 
+ * paused with a Swing timer, so that each phase can be seen, without either 
+ * thread sleeping.
+ *
+ * @author littlewoo
+ */
+public class EngineExecutor {
+	
+	/** marker in the update queue for a pause between turn phases */
+	private static final Runnable PAUSE = new Runnable() {
+		@Override
+		public void run() {
+		}
+	};
+	
+	/** the single thread which runs the game */
+	private final ExecutorService engine;
+	
+	/** the updates waiting to be run on the event dispatch thread */
+	private final Queue<Runnable> updates = 
+			new ConcurrentLinkedQueue<Runnable>();
+	/** true if the event dispatch thread has been asked to run the updates, 
+	 *  or is waiting for a pause to finish before doing so */
+	private final AtomicBoolean draining = new AtomicBoolean();
+	
+	/** the timer which ends a pause */
+	private final Timer pauseTimer;
+	/** the length of a pause between phases, in milliseconds */
+	private final int phasePause;
+	
+	/** the task which runs the waiting updates */
+	private final Runnable drainTask = new Runnable() {
+		@Override
+		public void run() {
+			drain();
+		}
+	};
+	
+	/**
+	 * Make a new EngineExecutor.
+	 * 
+	 * @param phasePause the time to pause between the phases of a turn, in 
+	 * 			milliseconds, or 0 to show the phases as fast as possible
+	 */
+	public EngineExecutor(int phasePause) {
+		this.phasePause = phasePause;
+		engine = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "Game engine");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		pauseTimer = new Timer(phasePause, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				drain();
+			}
+		});
+		pauseTimer.setRepeats(false);
+	}
+	
+	/**
+	 * Run a task on the engine thread. Tasks are run one at a time, in the 
+	 * order they are given.
+	 * 
+	 * @param task the task
+	 */
+	public void execute(Runnable task) {
+		engine.execute(task);
+	}
+	
+	/**
+	 * Queue an update to be run on the event dispatch thread, after all the 
+	 * updates queued before it.
+	 * 
+	 * @param update the update
+	 */
+	public void publish(Runnable update) {
+		updates.add(update);
+		if (draining.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(drainTask);
+		}
+	}
+	
+	/**
+	 * Queue a pause between turn phases. Updates queued after the pause are 
+	 * held back until it is over.
+	 */
+	public void pause() {
+		if (phasePause > 0) {
+			publish(PAUSE);
+		}
+	}
+	
+	/**
+	 * Run the waiting updates, on the event dispatch thread, until the queue 
+	 * is empty or a pause is reached.
+	 */
+	private void drain() {
+		while (true) {
+			Runnable update = updates.poll();
+			if (update == PAUSE) {
+				pauseTimer.restart();
+				return;
+			} else if (update != null) {
+				update.run();
+			} else {
+				draining.set(false);
+				if (updates.isEmpty() || !draining.compareAndSet(false, true)) {
+					return;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Wrap a listener so that it is told of changes of turn phase on the event
+	 * dispatch thread. Every phase after the first of a turn is preceded by a
+	 * pause, so that the changes made in the phase before can be seen.
+	 * 
+	 * @param l the listener
+	 * @return the wrapped listener, to be added to the game
+	 */
+	public TurnPhaseListener turnPhasesOnEdt(final TurnPhaseListener l) {
+		return new TurnPhaseListener() {
+			@Override
+			public void onTurnPhaseChange(final TurnPhase phase) {
+				if (phase != TurnPhase.ADVANCE_FIRE) {
+					pause();
+				}
+				publish(new Runnable() {
+					@Override
+					public void run() {
+						l.onTurnPhaseChange(phase);
+					}
+				});
+			}
+		};
+	}
+	
+	/**
+	 * Wrap a listener so that it is told of dice rolls on the event dispatch 
+	 * thread.
+	 * 
+	 * @param l the listener
+	 * @return the wrapped listener, to be added to the game
+	 */
+	public DiceRollListener diceRollsOnEdt(final DiceRollListener l) {
+		return new DiceRollListener() {
+			@Override
+			public void diceRoll(final DieResult dieResult) {
+				publish(new Runnable() {
+					@Override
+					public void run() {
+						l.diceRoll(dieResult);
+					}
+				});
+			}
+		};
+	}
+	
+	/**
+	 * Wrap a listener so that it is told of changes to AP on the event 
+	 * dispatch thread.
+	 * 
+	 * @param l the listener
+	 * @return the wrapped listener, to be added to the game
+	 */
+	public APListener apChangesOnEdt(final APListener l) {
+		return new APListener() {
+			@Override
+			public void onAPChange(final PlayerToken player, final int ap) {
+				publish(new Runnable() {
+					@Override
+					public void run() {
+						l.onAPChange(player, ap);
+					}
+				});
+			}
+		};
+	}
+	
+	/**
+	 * Wrap a listener so that it is told of POI events on the event dispatch 
+	 * thread.
+	 * 
+	 * @param l the listener
+	 * @return the wrapped listener, to be added to the game
+	 */
+	public POIEventListener poiEventsOnEdt(final POIEventListener l) {
+		return new POIEventListener() {
+			@Override
+			public void onPOIEvent(final POIEvent e) {
+				publish(new Runnable() {
+					@Override
+					public void run() {
+						l.onPOIEvent(e);
+					}
+				});
+			}
+		};
+	}
+}
@@ -21,12 +21,12 @@
 package ui;
 
 import game.Game;
+import game.PlayerInputData;
 
 import java.util.List;
 
 import ui.playersDialog.PlayerInfoDialog;
 import ui.playersDialog.PlayerInfoDialog.OkListener;
-import ui.playersDialog.PlayerInputData;
 
 /**
  * The graphical user interface for the game.
@@ -21,7 +21,7 @@
 package ui;
 
 import game.Game;
-import interfaces.POIEventListener;
+import interfaces.ActionView;
 
 import java.awt.BorderLayout;
 import java.awt.Container;
@@ -45,40 +45,55 @@ public class GameFrame extends JFrame {
 	private ControlPanel controlPanel;
 	/** the board panel */
 	private BoardPanel boardPanel;
+	/** the executor which runs the game */
+	private final EngineExecutor engine;
+	
+	/** the pause between the phases of a turn, in milliseconds */
+	private static final int PHASE_PAUSE = 250;
 
 	/**
 	 * Create a new game frame, for a given game
 	 * 
 	 * @param game the game represented by this frame
 	 */
-	public GameFrame(Game game) {
+	public GameFrame(final Game game) {
+		engine = new EngineExecutor(PHASE_PAUSE);
 		Container con = getContentPane();
-		controlPanel = new ControlPanel(game);
+		controlPanel = new ControlPanel(game, engine);
 		con.add(controlPanel, BorderLayout.SOUTH);
 		
 		TurnPhaseView tpv = controlPanel.getTurnPhaseView();
 		TurnPhaseHandler tph = new TurnPhaseHandler(tpv);
-		game.addTurnPhaseListener(tph);
+		game.addTurnPhaseListener(engine.turnPhasesOnEdt(tph));
 		
-		game.addDiceRollListener(controlPanel.getDiceRollListener());
+		game.addDiceRollListener(
+				engine.diceRollsOnEdt(controlPanel.getDiceRollListener()));
 		
 		APView apv = controlPanel.getAPView();
 		APHandler aph = new APHandler(apv);
-		game.addAPListener(aph);
+		game.addAPListener(engine.apChangesOnEdt(aph));
 		
 		InfoPanel info = new InfoPanel();
 		con.add(info, BorderLayout.EAST);
-		game.addPOIEventListener(info);
+		game.addPOIEventListener(engine.poiEventsOnEdt(info));
 
-		boardPanel = new BoardPanel(game);
+		boardPanel = new BoardPanel(game, engine);
 		boardPanel.setPreferredSize(new Dimension(1000, 850));
 		con.add(boardPanel, BorderLayout.CENTER);
 		
 		setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 		pack();
 		
-		game.addActionView(boardPanel);
-		game.placeInitialPOITokens();
+		final ActionView view = boardPanel.getActionView();
+		engine.execute(new Runnable() {
+			@Override
+			public void run() {
+				game.placeWalls();
+				game.placePlayers();
+				game.addActionView(view);
+				game.placeInitialPOITokens();
+			}
+		});
 		
 		JMenuBar menuBar = new JMenuBar();
 		setJMenuBar(menuBar);
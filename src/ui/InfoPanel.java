@@ -29,7 +29,6 @@ import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Font;
-import java.awt.Graphics;
 import java.awt.GridLayout;
 import java.util.ArrayList;
 import java.util.List;
@@ -111,15 +110,6 @@ public class InfoPanel extends JPanel implements POIEventListener {
 		add(killedPanel);
 	}
 	
-	@Override
-	public void paintComponent(Graphics g) {
-		super.paintComponent(g);
-		System.out.println("Painting InfoPanel");
-		for (TokenGridPanel t : tokenGrids) {
-			t.repaint();
-		}
-	}
-	
 	/**
 	 * Make a panel for displaying the rescued or killed POI tokens.
 	 * 
@@ -90,5 +90,6 @@ public class RemovedPOITokenDisplay {
 	 */
 	public void addBlankToken() {
 		blankStack.increment();
+		blankDisplay.repaintCell(new Point(0,0));
 	}
 }
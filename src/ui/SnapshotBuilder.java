@@ -0,0 +1,246 @@
+/**
+ *  File name: SnapshotBuilder.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ui;
+
+import game.Board.TokenChangeBatchListener;
+import game.Board.TokenChangeEvent;
+import game.action.ActionCollection;
+import game.action.PathMoveAction;
+import game.token.BlankPOIToken;
+import game.token.FireToken;
+import game.token.POIQuestionMarkToken;
+import game.token.PlayerToken;
+import game.token.SmokeToken;
+import game.token.Token;
+import game.token.VictimPOIToken;
+import game.token.WallToken;
+import interfaces.ActionView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps track of what is on the board, on the engine thread, and publishes a
+ * {@link BoardSnapshot} of it to a {@link BoardPanel} after each batch of 
+ * token changes and each new set of actions. Walls do not change during a 
+ * game, so they are passed on to the panel as tokens, to be drawn into its 
+ * background.
+ *
+ * @author littlewoo
+ */
+public class SnapshotBuilder implements TokenChangeBatchListener, ActionView {
+	/** the dimensions of the board */
+	private final int width;
+	private final int height;
+	
+	/** what is on each square now, as in {@link BoardSnapshot} */
+	private final byte[] threats;
+	private final byte[] pois;
+	private final byte[] players;
+	private final boolean[] markers;
+	
+	/** the players' tokens, in the order of their bits. A new array is made
+	 *  when a player is added, so that snapshots can share it. */
+	private PlayerToken[] playerTokens = new PlayerToken[0];
+	/** the square each player is on, or -1 if they are not on the board */
+	private final int[] playerSquares = new int[BoardSnapshot.MAX_PLAYERS];
+	/** the actions available, or null if there are none */
+	private ActionCollection actions;
+	/** the number of sets of actions sent before the current one */
+	private int actionsVersion = -1;
+	
+	/** the executor which publishes the snapshots */
+	private final EngineExecutor engine;
+	/** the panel the snapshots are published to */
+	private final BoardPanel panel;
+	
+	/**
+	 * Make a new SnapshotBuilder, for an empty board.
+	 * 
+	 * @param width the width of the board
+	 * @param height the height of the board
+	 * @param engine the executor which publishes the snapshots
+	 * @param panel the panel the snapshots are published to
+	 */
+	public SnapshotBuilder(int width, int height, EngineExecutor engine, 
+						   BoardPanel panel) {
+		this.width = width;
+		this.height = height;
+		this.engine = engine;
+		this.panel = panel;
+		threats = new byte[width * height];
+		pois = new byte[width * height];
+		players = new byte[width * height];
+		markers = new boolean[width * height];
+		Arrays.fill(playerSquares, -1);
+	}
+	
+	/**
+	 * Apply a batch of token changes, and publish the board as it now is.
+	 * 
+	 * @param changes the token change events
+	 */
+	@Override
+	public void onTokenChanges(List<TokenChangeEvent> changes) {
+		List<TokenChangeEvent> wallChanges = null;
+		for (TokenChangeEvent e : changes) {
+			if (e.getToken() instanceof WallToken) {
+				if (wallChanges == null) {
+					wallChanges = new ArrayList<TokenChangeEvent>();
+				}
+				wallChanges.add(e);
+				continue;
+			}
+			int i = e.getY() * width + e.getX();
+			switch (e.getChange()) {
+				case ADD:
+				case MOVE:
+					add(e.getToken(), i);
+					break;
+				case REMOVE:
+					remove(e.getToken(), i);
+					break;
+				case REPLACE:
+					remove(e.getReplacedToken(), i);
+					add(e.getToken(), i);
+					break;
+			}
+		}
+		if (wallChanges != null) {
+			final List<TokenChangeEvent> walls = wallChanges;
+			engine.publish(new Runnable() {
+				@Override
+				public void run() {
+					panel.onWallChanges(walls);
+				}
+			});
+		}
+		publish();
+	}
+	
+	/**
+	 * Mark the squares with an action available, and publish the board with
+	 * the new actions.
+	 * 
+	 * @param actions the actions available
+	 */
+	@Override
+	public void displayActions(ActionCollection actions) {
+		Arrays.fill(markers, false);
+		for (int k = 0; k < actions.size(); k++) {
+			markers[ActionCollection.getSquare(actions.getCode(k))] = true;
+		}
+		for (PathMoveAction a : actions.getPathActions()) {
+			markers[a.getLoc().y * width + a.getLoc().x] = true;
+		}
+		this.actions = actions;
+		actionsVersion++;
+		publish();
+	}
+	
+	/**
+	 * Put a token on a square. A player's token which is already on the board
+	 * is moved from the square it was on.
+	 * 
+	 * @param t the token
+	 * @param i the index of the square
+	 */
+	private void add(Token t, int i) {
+		if (t instanceof FireToken) {
+			threats[i] = BoardSnapshot.FIRE;
+		} else if (t instanceof SmokeToken) {
+			threats[i] = BoardSnapshot.SMOKE;
+		} else if (t instanceof POIQuestionMarkToken) {
+			pois[i] = BoardSnapshot.QUESTION_MARK;
+		} else if (t instanceof BlankPOIToken) {
+			pois[i] = BoardSnapshot.BLANK;
+		} else if (t instanceof VictimPOIToken) {
+			pois[i] = BoardSnapshot.VICTIM;
+		} else if (t instanceof PlayerToken) {
+			int k = getPlayerBit((PlayerToken) t);
+			if (playerSquares[k] >= 0) {
+				players[playerSquares[k]] &= ~(1 << k);
+			}
+			players[i] |= 1 << k;
+			playerSquares[k] = i;
+		}
+	}
+	
+	/**
+	 * Take a token off a square.
+	 * 
+	 * @param t the token
+	 * @param i the index of the square
+	 */
+	private void remove(Token t, int i) {
+		if (t instanceof FireToken || t instanceof SmokeToken) {
+			threats[i] = BoardSnapshot.NO_THREAT;
+		} else if (t instanceof POIQuestionMarkToken || 
+				   t instanceof BlankPOIToken || t instanceof VictimPOIToken) {
+			pois[i] = BoardSnapshot.NO_POI;
+		} else if (t instanceof PlayerToken) {
+			int k = getPlayerBit((PlayerToken) t);
+			players[i] &= ~(1 << k);
+			if (playerSquares[k] == i) {
+				playerSquares[k] = -1;
+			}
+		}
+	}
+	
+	/**
+	 * Get the number of a player's bit, giving them the next one if this is
+	 * the first time they have been seen.
+	 * 
+	 * @param t the player's token
+	 * @return the number of the player's bit
+	 * @throws IllegalStateException if there are already too many players
+	 */
+	private int getPlayerBit(PlayerToken t) {
+		for (int k = 0; k < playerTokens.length; k++) {
+			if (playerTokens[k] == t) {
+				return k;
+			}
+		}
+		int k = playerTokens.length;
+		if (k == BoardSnapshot.MAX_PLAYERS) {
+			throw new IllegalStateException("Too many players to show: " + t);
+		}
+		playerTokens = Arrays.copyOf(playerTokens, k + 1);
+		playerTokens[k] = t;
+		return k;
+	}
+	
+	/**
+	 * Make a snapshot of the board as it now is, and publish it to the panel.
+	 */
+	private void publish() {
+		final BoardSnapshot snapshot = new BoardSnapshot(width, height, 
+				threats.clone(), pois.clone(), players.clone(), 
+				markers.clone(), playerTokens, actions, actionsVersion);
+		engine.publish(new Runnable() {
+			@Override
+			public void run() {
+				panel.showSnapshot(snapshot);
+			}
+		});
+	}
+}
@@ -22,19 +22,33 @@ package ui;
 
 import game.token.MovableToken;
 import game.token.Token;
+import game.token.WallToken;
 
 import java.awt.BasicStroke;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
 
 import javax.swing.JPanel;
 
+import ui.drawing.TokenPainter;
 import ui.drawing.TokenPaintingManager;
+import ui.drawing.TokenPaintingManager.Layer;
 
 /**
- * A panel for drawing tokens in a grid shape
+ * A panel for drawing tokens in a grid shape. Only the area around a token 
+ * which is added, removed or moved is repainted, and painting only draws the
+ * tokens which could show in the area being repainted.
+ * 
+ * The parts of the grid which do not change during a game (the background, 
+ * grid lines and walls) are drawn once into an image, which is copied onto 
+ * the panel each time it is painted. The image is only drawn again when the 
+ * walls change or the panel changes size.
  *
  * @author littlewoo
  */
@@ -56,14 +70,24 @@ public class TokenGridPanel extends JPanel {
 	/** the y value for the bottom margin */
 	protected final int bottomMargin;
 	
+	/** the stroke for drawing the grid lines */
+	private static final BasicStroke GRID_STROKE = new BasicStroke(1);
+	
 	/** the manager responsible for drawing tokens */
 	private final TokenPaintingManager tokenPaintingManager;
+	/** the manager responsible for drawing the tokens which are part of the 
+	 *  background */
+	private final TokenPaintingManager backgroundPaintingManager;
+	
+	/** the background, grid lines and walls, or null if they need drawing */
+	private BufferedImage background;
 	
 	/**
 	 * Create a new TokenGridPanel.
 	 */
 	public TokenGridPanel(int cellSize, int marginSize, int width, int height) {
 		tokenPaintingManager = new TokenPaintingManager();
+		backgroundPaintingManager = new TokenPaintingManager();
 		this.cellSize = cellSize;
 		this.width = width;
 		this.height = height;
@@ -78,11 +102,47 @@ public class TokenGridPanel extends JPanel {
 	@Override
 	public void paintComponent(Graphics g) {
 		Graphics2D g2 = (Graphics2D) g;
-		super.paintComponent(g2);
-		drawGridLines(g2);
+		if (background == null || background.getWidth() != getWidth() || 
+			background.getHeight() != getHeight()) {
+			background = drawBackground();
+		}
+		if (!isOpaque()) {
+			super.paintComponent(g2);
+		}
+		g2.drawImage(background, 0, 0, null);
 		tokenPaintingManager.drawAll(g2);
 	}
 	
+	/**
+	 * Draw the background, grid lines and walls into a new image the size of
+	 * the panel. If the panel is not opaque, the background is left clear.
+	 * 
+	 * @return the image
+	 */
+	private BufferedImage drawBackground() {
+		int w = Math.max(getWidth(), 1);
+		int h = Math.max(getHeight(), 1);
+		int transparency = isOpaque() ? Transparency.OPAQUE 
+									  : Transparency.TRANSLUCENT;
+		GraphicsConfiguration gc = getGraphicsConfiguration();
+		BufferedImage image;
+		if (gc != null) {
+			image = gc.createCompatibleImage(w, h, transparency);
+		} else {
+			image = new BufferedImage(w, h, isOpaque() ? 
+					BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+		}
+		Graphics2D g = image.createGraphics();
+		if (isOpaque()) {
+			g.setColor(getBackground());
+			g.fillRect(0, 0, w, h);
+		}
+		drawGridLines(g);
+		backgroundPaintingManager.drawAll(g);
+		g.dispose();
+		return image;
+	}
+	
 	/**
 	 * Add a token to the grid
 	 * 
@@ -91,7 +151,13 @@ public class TokenGridPanel extends JPanel {
 	 */
 	public void addToken(Token t, Point p) {
 		Point loc = getCellLoc(p);
-		tokenPaintingManager.addToken(t, loc.x, loc.y);
+		if (isBackgroundToken(t)) {
+			backgroundPaintingManager.addToken(t, loc.x, loc.y);
+			background = null;
+		} else {
+			tokenPaintingManager.addToken(t, loc.x, loc.y);
+		}
+		repaintAround(loc);
 	}
 	
 	/**
@@ -100,7 +166,46 @@ public class TokenGridPanel extends JPanel {
 	 * @param t the token to remove
 	 */
 	public void removeToken(Token t) {
-		tokenPaintingManager.removeToken(t);
+		Point loc;
+		if (isBackgroundToken(t)) {
+			loc = backgroundPaintingManager.removeToken(t);
+			background = null;
+		} else {
+			loc = tokenPaintingManager.removeToken(t);
+		}
+		if (loc != null) {
+			repaintAround(loc);
+		}
+	}
+	
+	/**
+	 * Show or hide a layer of tokens, e.g. for debugging.
+	 * 
+	 * @param layer the layer
+	 * @param show true if the tokens in the layer should be drawn
+	 */
+	public void setLayerVisible(Layer layer, boolean show) {
+		tokenPaintingManager.setLayerVisible(layer, show);
+		backgroundPaintingManager.setLayerVisible(layer, show);
+		background = null;
+		repaint();
+	}
+	
+	/**
+	 * @param layer a layer of tokens
+	 * @return true if the tokens in the layer are drawn
+	 */
+	protected boolean isLayerVisible(Layer layer) {
+		return tokenPaintingManager.isLayerVisible(layer);
+	}
+	
+	/**
+	 * @param t a token
+	 * @return true if the token is drawn as part of the background, i.e. it 
+	 * 			does not change or move during a game
+	 */
+	private static boolean isBackgroundToken(Token t) {
+		return t instanceof WallToken;
 	}
 	
 	/**
@@ -110,8 +215,45 @@ public class TokenGridPanel extends JPanel {
 	 * @param p the location it is moving to
 	 */
 	public void moveToken(MovableToken t, Point p) {
+		Point old = tokenPaintingManager.getTokenLocation(t);
+		if (old != null) {
+			repaintAround(old);
+		}
 		Point loc = getCellLoc(p);
 		tokenPaintingManager.updateTokenLocation(t, loc.x, loc.y);
+		repaintAround(loc);
+	}
+	
+	/**
+	 * Repaint the cell at a grid reference, e.g. when a token in it has 
+	 * changed without being moved.
+	 * 
+	 * @param p the grid reference of the cell
+	 */
+	public void repaintCell(Point p) {
+		repaintCell(p.x, p.y);
+	}
+	
+	/**
+	 * Repaint the cell at a grid reference.
+	 * 
+	 * @param x the x coordinate of the cell
+	 * @param y the y coordinate of the cell
+	 */
+	protected void repaintCell(int x, int y) {
+		int extent = TokenPainter.MAX_EXTENT;
+		repaint(getCellX(x) - extent, getCellY(y) - extent, 
+				extent * 2, extent * 2);
+	}
+	
+	/**
+	 * Repaint the area which a token drawn at a location could cover.
+	 * 
+	 * @param loc the centre of the token, in pixels
+	 */
+	protected void repaintAround(Point loc) {
+		int extent = TokenPainter.MAX_EXTENT;
+		repaint(loc.x - extent, loc.y - extent, extent * 2, extent * 2);
 	}
 
 	/**
@@ -122,9 +264,104 @@ public class TokenGridPanel extends JPanel {
 	 * @return the centre location of a cell
 	 */
 	protected Point getCellLoc(Point p) {
-		int xLoc = leftMargin + cellSize * p.x + cellSize / 2;
-		int yLoc = topMargin + cellSize * p.y + cellSize / 2;
-		return new Point(xLoc, yLoc);
+		return new Point(getCellX(p.x), getCellY(p.y));
+	}
+	
+	/**
+	 * @param x the x coordinate of a cell
+	 * @return the x coordinate of the centre of the cell, in pixels
+	 */
+	protected int getCellX(int x) {
+		return leftMargin + cellSize * x + cellSize / 2;
+	}
+	
+	/**
+	 * @param y the y coordinate of a cell
+	 * @return the y coordinate of the centre of the cell, in pixels
+	 */
+	protected int getCellY(int y) {
+		return topMargin + cellSize * y + cellSize / 2;
+	}
+	
+	/**
+	 * @param area an area of the panel, in pixels
+	 * @return the first column of cells whose tokens could show in the area
+	 */
+	protected int getFirstColumn(Rectangle area) {
+		return firstCell(area.x, leftMargin, width);
+	}
+	
+	/**
+	 * @param area an area of the panel, in pixels
+	 * @return the column after the last one whose tokens could show in the 
+	 * 			area
+	 */
+	protected int getEndColumn(Rectangle area) {
+		return endCell(area.x + area.width, leftMargin, width);
+	}
+	
+	/**
+	 * @param area an area of the panel, in pixels
+	 * @return the first row of cells whose tokens could show in the area
+	 */
+	protected int getFirstRow(Rectangle area) {
+		return firstCell(area.y, topMargin, height);
+	}
+	
+	/**
+	 * @param area an area of the panel, in pixels
+	 * @return the row after the last one whose tokens could show in the area
+	 */
+	protected int getEndRow(Rectangle area) {
+		return endCell(area.y + area.height, topMargin, height);
+	}
+	
+	/**
+	 * Get the first cell along one side of the grid whose tokens reach past a
+	 * given pixel, i.e. whose centre is less than 
+	 * {@link TokenPainter#MAX_EXTENT} before it.
+	 * 
+	 * @param start the pixel
+	 * @param margin the margin before the first cell, in pixels
+	 * @param cells the number of cells along that side of the grid
+	 * @return the cell, from 0 to cells
+	 */
+	private int firstCell(int start, int margin, int cells) {
+		int t = start - TokenPainter.MAX_EXTENT - margin - cellSize / 2;
+		return clamp(floorDiv(t, cellSize) + 1, cells);
+	}
+	
+	/**
+	 * Get the cell after the last one along one side of the grid whose tokens
+	 * reach before a given pixel, i.e. whose centre is less than 
+	 * {@link TokenPainter#MAX_EXTENT} after it.
+	 * 
+	 * @param end the pixel
+	 * @param margin the margin before the first cell, in pixels
+	 * @param cells the number of cells along that side of the grid
+	 * @return the cell, from 0 to cells
+	 */
+	private int endCell(int end, int margin, int cells) {
+		int t = end + TokenPainter.MAX_EXTENT - margin - cellSize / 2;
+		return clamp(-floorDiv(-t, cellSize), cells);
+	}
+	
+	/**
+	 * @param a the number to divide
+	 * @param b the number to divide by, which must be positive
+	 * @return the largest whole number no greater than a / b
+	 */
+	private static int floorDiv(int a, int b) {
+		return a >= 0 ? a / b : -((b - 1 - a) / b);
+	}
+	
+	/**
+	 * @param cell a cell
+	 * @param cells the number of cells
+	 * @return the cell, moved to 0 if it is less, or to cells if it is more
+	 */
+	private static int clamp(int cell, int cells) {
+		return Math.max(0, Math.min(cell, cells));
 	}
 	
 	/**
@@ -132,7 +369,7 @@ public class TokenGridPanel extends JPanel {
 	 */
 	private void drawGridLines(Graphics2D g) {
 		g.setColor(this.getForeground());
-		g.setStroke(new BasicStroke(1));
+		g.setStroke(GRID_STROKE);
 		
 		for (int i=0; i<width; i++) {
 			int x = leftMargin + i * cellSize;
@@ -20,18 +20,15 @@
  */
 package ui.drawing;
 
-import game.action.Action;
-
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Point;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Class for painting action markers. When an action is possible, a coloured 
  * circle is placed on the square relating to the action, to signify to the user
  * that an action is available on that square. This class draws the marker.
+ * The marker is drawn once into a sprite, as drawing a translucent circle 
+ * allocates every time.
  *
  * @author littlewoo
  */
@@ -40,40 +37,32 @@ public class ActionPainter {
 	/** the colour of the marker */
 	private static final Color markerColour = new Color(0.0f, 0.5f, 0.0f, 0.5f);
 	
-	/** The actions currently stored in the painter */
-	private Map<Action, Point> actionLocs;
-	
+	/** the radius of the marker */
+	private static final int RADIUS = 20;
 	
-	public ActionPainter() {
-		actionLocs = new HashMap<Action, Point>();
-	}
-
-	/** 
-	 * 
-	 * @param g
-	 */
-	public void paintAll(Graphics2D g) {
-		g.setColor(markerColour);
-		for (Point p : actionLocs.values()) {
-			g.fillOval(p.x-20, p.y-20, 40, 40);
+	/** the painter which draws the marker from its sprite */
+	private static final TokenPainter MARKER = new SpritePainter(
+			new TokenPainter() {
+		@Override
+		public void draw(Graphics2D g, int x, int y) {
+			g.setColor(markerColour);
+			g.fillOval(x - RADIUS, y - RADIUS, RADIUS * 2, RADIUS * 2);
 		}
-	}
+		
+		@Override
+		protected int getDiameter() {
+			return RADIUS * 2;
+		}
+	});
 
 	/** 
+	 * Paint a marker.
 	 * 
-	 * @param a
-	 * @param x
-	 * @param y
+	 * @param g the graphics to paint onto
+	 * @param x the x coordinate of the centre of the marker
+	 * @param y the y coordinate of the centre of the marker
 	 */
-	public void addAction(Action a, Point p) {
-		actionLocs.put(a, p);
+	public static void paintMarker(Graphics2D g, int x, int y) {
+		MARKER.draw(g, x, y);
 	}
-
-	/** 
-	 * Clear all the actions from the painter.
-	 */
-	public void clearActions() {
-		actionLocs.clear();
-	}
-
 }
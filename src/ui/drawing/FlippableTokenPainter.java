@@ -42,7 +42,7 @@ public abstract class FlippableTokenPainter extends TokenPainter {
 	 * 			flippable token
 	 */
 	public FlippableTokenPainter(FlippableToken token) {
-		painter = token.getPainter();
+		painter = TokenPainterFactory.getPainter(token);
 	}
 	
 	/**
@@ -51,14 +51,14 @@ public abstract class FlippableTokenPainter extends TokenPainter {
 	 * @param token the new token (i.e. the token after flipping)
 	 */
 	public void flip(FlippableToken token) {
-		painter = token.getPainter();
+		painter = TokenPainterFactory.getPainter(token);
 	}
 	
 	/**
 	 * Paint the token in its current state.
 	 */
 	@Override
-	public void draw(Graphics2D g) {
-		painter.draw(g);
+	public void draw(Graphics2D g, int x, int y) {
+		painter.draw(g, x, y);
 	}
 }
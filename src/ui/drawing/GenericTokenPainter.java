@@ -23,6 +23,7 @@ package ui.drawing;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
+import java.awt.font.GlyphVector;
 
 /**
  * A token painter for painting any kind of tokens. The resulting visual is a 
@@ -50,17 +51,23 @@ public class GenericTokenPainter extends TokenPainter {
 	private static final int DEFAULT_TOKEN_DIAMETER_PERCENTAGE = 66;
 	
 	/** the diameter of the token, as a percentage of the cell size */
-	private int tokenDiameterPercentage;
+	private final int tokenDiameterPercentage;
+	/** the circle drawn for the token */
+	private final Circle circle;
 
 	/** the symbol used as the token's character label, and its colour */
-	private String symbol;
-	private Color symbolColour;
+	private final String symbol;
+	private final Color symbolColour;
 	
 	/** the background colour of the token */
-	private Color bgColour;
+	private final Color bgColour;
 	
 	/** the border colour of the token */
-	private Color borderColour;
+	private final Color borderColour;
+	
+	/** the symbol, laid out ready for drawing, or null if it has not yet been
+	 *  drawn */
+	private GlyphVector label;
 	
 	/**
 	 * Make a new Generic Token Drawer.
@@ -85,7 +92,12 @@ public class GenericTokenPainter extends TokenPainter {
 	 */
 	public GenericTokenPainter(String symbol, int diameterPct, 
 					   Color symbolColour, Color bgColour, Color borderColour) {
+		if (symbol.length() > 1) {
+			throw new IllegalArgumentException(
+								"Token character length must be <= 1.");
+		}
 		tokenDiameterPercentage = diameterPct;
+		circle = new Circle(diameterPct);
 		this.symbol = symbol;
 		this.symbolColour = symbolColour;
 		this.borderColour = borderColour;
@@ -97,27 +109,28 @@ public class GenericTokenPainter extends TokenPainter {
 	 * Draw the token
 	 * 
 	 * @param g the graphics to draw the token on
+	 * @param x the x coordinate of the centre of the token
+	 * @param y the y coordinate of the centre of the token
 	 */
 	@Override
-	public void draw(Graphics2D g) {
-		super.drawCircleToken(
-				g, tokenDiameterPercentage, bgColour, borderColour);
-		drawCharacter(g);
+	public void draw(Graphics2D g, int x, int y) {
+		circle.draw(g, x, y, bgColour, borderColour);
+		drawCharacter(g, x, y);
 	}
 	
 	/**
 	 * Draw the character symbol on the token
 	 * 
 	 * @param g the graphics to draw on
+	 * @param x the x coordinate of the centre of the token
+	 * @param y the y coordinate of the centre of the token
 	 */
-	protected void drawCharacter(Graphics2D g) {
-		if (symbol.length() > 1) {
-			throw new IllegalArgumentException(
-								"Token character length must be <= 1.");
+	protected void drawCharacter(Graphics2D g, int x, int y) {
+		if (label == null) {
+			label = layOut(g, TOKEN_CHAR_FONT, symbol);
 		}
 		g.setColor(symbolColour);
-		g.setFont(TOKEN_CHAR_FONT);
-		g.drawString(symbol, x+TOKEN_CHAR_X_OFFSET, y+TOKEN_CHAR_Y_OFFSET);
+		g.drawGlyphVector(label, x+TOKEN_CHAR_X_OFFSET, y+TOKEN_CHAR_Y_OFFSET);
 	}
 
 	/**
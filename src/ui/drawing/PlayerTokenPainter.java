@@ -23,6 +23,7 @@ package ui.drawing;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
+import java.awt.font.GlyphVector;
 
 /**
  * A painter for painting player tokens. Consists of a circle of the player's 
@@ -35,6 +36,8 @@ public class PlayerTokenPainter extends TokenPainter {
 	
 	/** the diameter of the token, as a percentage of the cell size */
 	private static int TOKEN_DIAMETER_PERCENTAGE = 55;
+	/** the circle drawn for the token */
+	private static final Circle CIRCLE = new Circle(TOKEN_DIAMETER_PERCENTAGE);
 	
 	/**
 	 * the offset from the centre of the token for where the token's character
@@ -65,8 +68,13 @@ public class PlayerTokenPainter extends TokenPainter {
 	private final static String symbol = "P";
 	
 	/** The name and colour of the player attached to this token */
-	private String name;
-	private Color colour;
+	private final String name;
+	private final Color colour;
+	
+	/** the symbol and the player's name, laid out ready for drawing, or null
+	 *  if they have not yet been drawn */
+	private GlyphVector symbolLabel;
+	private GlyphVector nameLabel;
 
 	/**
 	 * Construct a new player token painter
@@ -83,17 +91,22 @@ public class PlayerTokenPainter extends TokenPainter {
 	 * Draw the token
 	 * 
 	 * @param g the graphics to be drawn on
+	 * @param x the x coordinate of the centre of the token
+	 * @param y the y coordinate of the centre of the token
 	 */
 	@Override
-	public void draw(Graphics2D g) {
-		drawCircleToken(g, TOKEN_DIAMETER_PERCENTAGE, Color.WHITE, colour);
+	public void draw(Graphics2D g, int x, int y) {
+		if (symbolLabel == null) {
+			symbolLabel = layOut(g, TOKEN_CHAR_FONT, symbol);
+			nameLabel = layOut(g, PLAYER_FONT, name);
+		}
+		CIRCLE.draw(g, x, y, Color.WHITE, colour);
 		g.setColor(colour);
-		g.setFont(TOKEN_CHAR_FONT);
-		g.drawString(symbol, x + TOKEN_CHAR_X_OFFSET, y + TOKEN_CHAR_Y_OFFSET);
+		g.drawGlyphVector(symbolLabel, x + TOKEN_CHAR_X_OFFSET, 
+						  y + TOKEN_CHAR_Y_OFFSET);
 		
 		g.setColor(Color.BLACK);
-		g.setFont(PLAYER_FONT);
-		g.drawString(name, x+PLAYER_X_OFFSET, y+PLAYER_Y_OFFSET);
+		g.drawGlyphVector(nameLabel, x+PLAYER_X_OFFSET, y+PLAYER_Y_OFFSET);
 		
 	}
 
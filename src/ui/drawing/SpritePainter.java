@@ -0,0 +1,88 @@
+/**
+ *  File name: SpritePainter.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ui.drawing;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * A painter which draws a token once, using another painter, into an image 
+ * (a sprite), and then draws the token by copying the image. Only suitable 
+ * for tokens which always look the same.
+ *
+ * @author littlewoo
+ */
+public class SpritePainter extends TokenPainter {
+	
+	/** the width and height of the sprite, in pixels */
+	private static final int SIZE = MAX_EXTENT * 2;
+	
+	/** the painter which draws the sprite */
+	private final TokenPainter painter;
+	
+	/** the sprite, or null if it has not yet been drawn */
+	private BufferedImage sprite;
+	
+	/**
+	 * Make a new SpritePainter
+	 * 
+	 * @param painter the painter for the token
+	 */
+	public SpritePainter(TokenPainter painter) {
+		this.painter = painter;
+	}
+
+	/* (non-Javadoc)
+	 * @see ui.drawing.TokenPainter#draw(java.awt.Graphics2D, int, int)
+	 */
+	@Override
+	public void draw(Graphics2D g, int x, int y) {
+		if (sprite == null) {
+			sprite = drawSprite(g.getDeviceConfiguration());
+		}
+		g.drawImage(sprite, x - MAX_EXTENT, y - MAX_EXTENT, null);
+	}
+	
+	/**
+	 * Draw the token into a new sprite.
+	 * 
+	 * @param gc the configuration the sprite will be drawn onto
+	 * @return the sprite
+	 */
+	private BufferedImage drawSprite(GraphicsConfiguration gc) {
+		BufferedImage image = 
+				gc.createCompatibleImage(SIZE, SIZE, Transparency.TRANSLUCENT);
+		Graphics2D g = image.createGraphics();
+		painter.draw(g, MAX_EXTENT, MAX_EXTENT);
+		g.dispose();
+		return image;
+	}
+
+	/* (non-Javadoc)
+	 * @see ui.drawing.TokenPainter#getDiameter()
+	 */
+	@Override
+	protected int getDiameter() {
+		return painter.getDiameter();
+	}
+}
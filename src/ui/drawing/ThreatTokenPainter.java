@@ -35,6 +35,8 @@ public abstract class ThreatTokenPainter extends GenericTokenPainter {
 	 * the square it is in
 	 */
 	private static final int DIAMETER_PERCENTAGE = 70;
+	/** the circle drawn for the token */
+	private static final Circle CIRCLE = new Circle(DIAMETER_PERCENTAGE);
 	
 	/** the background colour */
 	private static final Color bgColour = Color.black;
@@ -56,11 +58,13 @@ public abstract class ThreatTokenPainter extends GenericTokenPainter {
 	 * draw the token
 	 * 
 	 * @param g the graphics to draw on
+	 * @param x the x coordinate of the centre of the token
+	 * @param y the y coordinate of the centre of the token
 	 */
 	@Override
-	public void draw(Graphics2D g) {
-		drawCircleToken(g, DIAMETER_PERCENTAGE, Color.BLACK, Color.RED);
-		drawCharacter(g);
+	public void draw(Graphics2D g, int x, int y) {
+		CIRCLE.draw(g, x, y, Color.BLACK, Color.RED);
+		drawCharacter(g, x, y);
 	}
 
 	/**
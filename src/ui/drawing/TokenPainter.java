@@ -24,12 +24,15 @@ import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
-import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.font.GlyphVector;
 
 import ui.BoardPanel;
 
 /**
- * Class for painting tokens onto the board
+ * Class for painting tokens onto the board. Painters hold no state of their 
+ * own, such as the location of a token, so one painter can be shared by all 
+ * the tokens which look the same.
  *
  * @author littlewoo
  */
@@ -37,80 +40,127 @@ public abstract class TokenPainter {
 	/** the size of one square on the board, in pixels */
 	protected static final int CELL_SIZE = BoardPanel.CELL_SIZE;
 	
+	/** the furthest from its location that any token is drawn, in pixels */
+	public static final int MAX_EXTENT = CELL_SIZE * 3 / 5 + 2;
+	
 	/** The font used to label the token */
 	protected static final Font tokenLabelFont = 
 			new Font(Font.MONOSPACED, Font.BOLD, 50);
 	
-	/** the location of the token to be drawn */
-	protected int x;
-	protected int y;
-		
+	/** the strokes made so far, indexed by their width */
+	private static final BasicStroke[] strokes = new BasicStroke[32];
+	
 	/**
-	 * Update the location of this token
-	 * 
-	 * @param x the x coordinate
-	 * @param y the y coordinate
+	 * @param x the x coordinate of a token
+	 * @param y the y coordinate of a token
+	 * @param area an area of the panel, in pixels
+	 * @return true if a token drawn at the location could show in the area
 	 */
-	public void updateLocation(int x, int y) {
-		this.x = x;
-		this.y = y;
+	public static boolean intersects(int x, int y, Rectangle area) {
+		return x + MAX_EXTENT > area.x && x - MAX_EXTENT < area.x + area.width 
+			&& y + MAX_EXTENT > area.y && y - MAX_EXTENT < area.y + area.height;
 	}
 		
 	/**
-	 * Draw a circular background of a token
+	 * Get a stroke of a given width. Strokes are made once and shared.
 	 * 
-	 * @param g the graphics to draw on
-	 * @param diameterPct the diameter of the circle, as a percentage of the 
-	 * 						size of the cell
-	 * @param bgColour the background colour of the circle
-	 * @param borderColour the colour of the border of the circle
+	 * @param width the width of the stroke, in pixels
+	 * @return the stroke
 	 */
-	protected void drawCircleToken(Graphics2D g, int diameterPct,
-								   Color bgColour, Color borderColour) {
-		drawCircleToken(g, new Point(0,0), diameterPct, 20, bgColour, borderColour);
+	protected static BasicStroke getStroke(int width) {
+		if (width >= strokes.length) {
+			return new BasicStroke(width);
+		}
+		if (strokes[width] == null) {
+			strokes[width] = new BasicStroke(width);
+		}
+		return strokes[width];
 	}
 	
 	/**
-	 * Draw a circular background of a token, at an offset from the centre of
-	 * the cell
+	 * Lay out a label, ready to be drawn with 
+	 * {@link Graphics2D#drawGlyphVector(GlyphVector, float, float)}.
 	 * 
-	 * @param g the graphics to draw on
-	 * @param loc the centre of the token, relative to the location of the
-	 * 				centre of the cell, with the values being a percentage of 
-	 * 				the size of a cell
-	 * @param borderThickness the thickness of the border, as a percentage of
-	 * 						  the diameter of the circle
-	 * @param diameterPct the diameter of the circle, as a percentage of the 
-	 * 					  size of the cell
-	 * @param bgColour the background colour of the circle
-	 * @param borderColour the border colour of the circle
+	 * @param g the graphics the label will be drawn on
+	 * @param font the font of the label
+	 * @param text the text of the label
+	 * @return the laid out label
+	 */
+	protected static GlyphVector layOut(Graphics2D g, Font font, String text) {
+		return font.createGlyphVector(g.getFontRenderContext(), text);
+	}
+	
+	/**
+	 * The shape of the circular background of a token. The sizes are worked 
+	 * out when the circle is made, so drawing it only needs its location.
 	 */
-	protected void drawCircleToken(Graphics2D g, 
-								   Point loc, 
-								   int diameterPct, 
-								   int borderThickness,
-								   Color bgColour, 
-								   Color borderColour) {
-		int xOffset = loc.x * CELL_SIZE / 100;
-		int yOffset = loc.y * CELL_SIZE / 100;
-		int diameter = CELL_SIZE * diameterPct / 100;
-		int cLeft = (x + xOffset) - diameter / 2;
-		int cTop = (y + yOffset) - diameter / 2;
-		int absThickness = borderThickness * diameter / 100;
+	protected static class Circle {
+		/** the offset of the top left of the circle from the centre of the 
+		 *  cell */
+		private final int left;
+		private final int top;
+		/** the diameter of the circle */
+		private final int diameter;
+		/** the stroke for the border */
+		private final BasicStroke stroke;
+		
+		/**
+		 * Make a circle centred in the cell.
+		 * 
+		 * @param diameterPct the diameter of the circle, as a percentage of 
+		 * 			the size of the cell
+		 */
+		public Circle(int diameterPct) {
+			this(0, 0, diameterPct, 20);
+		}
+		
+		/**
+		 * Make a circle at an offset from the centre of the cell.
+		 * 
+		 * @param xOffsetPct the x offset of the centre of the circle from the
+		 * 			centre of the cell, as a percentage of the size of the cell
+		 * @param yOffsetPct the y offset of the centre of the circle from the
+		 * 			centre of the cell, as a percentage of the size of the cell
+		 * @param diameterPct the diameter of the circle, as a percentage of 
+		 * 			the size of the cell
+		 * @param borderThickness the thickness of the border, as a percentage
+		 * 			of the diameter of the circle
+		 */
+		public Circle(int xOffsetPct, int yOffsetPct, int diameterPct, 
+					  int borderThickness) {
+			diameter = CELL_SIZE * diameterPct / 100;
+			left = xOffsetPct * CELL_SIZE / 100 - diameter / 2;
+			top = yOffsetPct * CELL_SIZE / 100 - diameter / 2;
+			stroke = getStroke(borderThickness * diameter / 100);
+		}
 		
-		g.setColor(bgColour);
-		g.fillOval(cLeft, cTop, diameter, diameter);
-		g.setStroke(new BasicStroke(absThickness));
-		g.setColor(borderColour);
-		g.drawOval(cLeft, cTop, diameter, diameter);
+		/**
+		 * Draw the circle.
+		 * 
+		 * @param g the graphics to draw on
+		 * @param x the x coordinate of the centre of the cell
+		 * @param y the y coordinate of the centre of the cell
+		 * @param bgColour the background colour of the circle
+		 * @param borderColour the border colour of the circle
+		 */
+		public void draw(Graphics2D g, int x, int y, 
+						 Color bgColour, Color borderColour) {
+			g.setColor(bgColour);
+			g.fillOval(x + left, y + top, diameter, diameter);
+			g.setStroke(stroke);
+			g.setColor(borderColour);
+			g.drawOval(x + left, y + top, diameter, diameter);
+		}
 	}
 
 	/** 
 	 * Paint the token
 	 * 
 	 * @param g the graphics to paint on
+	 * @param x the x coordinate of the centre of the token
+	 * @param y the y coordinate of the centre of the token
 	 */
-	public abstract void draw(Graphics2D g);
+	public abstract void draw(Graphics2D g, int x, int y);
 	
 	/**
 	 * @return the diameter of the token, expressed as a percentage of the size
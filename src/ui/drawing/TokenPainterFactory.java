@@ -0,0 +1,109 @@
+/**
+ *  File name: TokenPainterFactory.java
+ *
+ *  Copyright 2014: John Littlewood
+ *
+ *  This file is part of FireRescue.
+ *
+ *  FireRescue is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  FireRescue is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with FireRescue.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ui.drawing;
+
+import game.NeighbourTable;
+import game.token.BlankPOIToken;
+import game.token.FireToken;
+import game.token.POIQuestionMarkToken;
+import game.token.PlayerToken;
+import game.token.SmokeToken;
+import game.token.Token;
+import game.token.TokenStackToken;
+import game.token.VictimPOIToken;
+import game.token.WallToken;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Utility class for obtaining the painter for a token. The tokens themselves
+ * know nothing about how they are drawn, so that the game can be run without
+ * the user interface.
+ * 
+ * Tokens which look the same share a painter, which draws them from a sprite.
+ * Painters should only be used on the event dispatch thread.
+ *
+ * @author littlewoo
+ */
+public class TokenPainterFactory {
+	
+	/** the painters shared by all the tokens of a kind */
+	public static final TokenPainter FIRE = 
+			new SpritePainter(new FireTokenPainter());
+	public static final TokenPainter SMOKE = 
+			new SpritePainter(new SmokeTokenPainter());
+	public static final TokenPainter QUESTION_MARK = 
+			new SpritePainter(new POITokenPainter("?"));
+	public static final TokenPainter BLANK = 
+			new SpritePainter(new POITokenPainter(""));
+	public static final TokenPainter VICTIM = 
+			new SpritePainter(new POITokenPainter("V"));
+	
+	/** the painter for each player's token */
+	private static final Map<PlayerToken, TokenPainter> playerPainters = 
+			new WeakHashMap<PlayerToken, TokenPainter>();
+	
+	/** the painter for each set of walls, indexed by the wall mask */
+	private static final TokenPainter[] wallPainters = 
+			new TokenPainter[1 << NeighbourTable.DIRECTION_COUNT];
+
+	/**
+	 * Get the painter for a token.
+	 *
+	 * @param t the token to be painted
+	 * @return the painter for the token
+	 * @throws IllegalArgumentException if there is no painter for the token
+	 */
+	public static TokenPainter getPainter(Token t) {
+		if (t instanceof FireToken) {
+			return FIRE;
+		} else if (t instanceof SmokeToken) {
+			return SMOKE;
+		} else if (t instanceof POIQuestionMarkToken) {
+			return QUESTION_MARK;
+		} else if (t instanceof BlankPOIToken) {
+			return BLANK;
+		} else if (t instanceof VictimPOIToken) {
+			return VICTIM;
+		} else if (t instanceof PlayerToken) {
+			PlayerToken pt = (PlayerToken) t;
+			TokenPainter tp = playerPainters.get(pt);
+			if (tp == null) {
+				tp = new SpritePainter(
+						new PlayerTokenPainter(pt.getName(), pt.getColour()));
+				playerPainters.put(pt, tp);
+			}
+			return tp;
+		} else if (t instanceof WallToken) {
+			int mask = ((WallToken) t).getWallMask();
+			if (wallPainters[mask] == null) {
+				wallPainters[mask] = 
+						new SpritePainter(new WallTokenPainter(mask));
+			}
+			return wallPainters[mask];
+		} else if (t instanceof TokenStackToken) {
+			TokenStackToken st = (TokenStackToken) t;
+			return new TokenStackPainter(st, getPainter(st.getToken()));
+		}
+		throw new IllegalArgumentException("No painter for token: " + t);
+	}
+}
@@ -21,39 +21,79 @@
 package ui.drawing;
 
 import game.token.MovableToken;
+import game.token.POIToken;
+import game.token.PlayerToken;
+import game.token.ThreatToken;
 import game.token.Token;
+import game.token.WallToken;
 
 import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Class for handling all drawing of tokens on the board
+ * Class for handling all drawing of tokens on the board. The tokens are kept
+ * in a list for each layer, so they can be drawn in order without being 
+ * sorted, and each layer can be hidden.
  *
  * @author littlewoo
  */
 public class TokenPaintingManager {
+	
+	/**
+	 * The layers tokens are drawn in, from the bottom up.
+	 */
+	public enum Layer {
+		WALLS, THREATS, POIS, PLAYERS, OVERLAYS;
+	}
+	
+	/** all the layers, from the bottom up */
+	private static final Layer[] LAYERS = Layer.values();
 
-	/** The token painters managed */
-	private Map<Token, TokenPainter> tokenPainters;
-	/** The comparator for ordering tokens in the z axis */
-	private Comparator<TokenPainter> tokenOrderComparator;
+	/** The tokens managed, with their painters and locations */
+	private final Map<Token, PlacedToken> tokens;
+	/** The tokens in each layer, in no particular order */
+	private final List<List<PlacedToken>> layers;
+	/** whether each layer is drawn */
+	private final boolean[] visible;
+	
+	/** working space for the bounds of the clip */
+	private final Rectangle clip = new Rectangle();
 	
 	/**
 	 * Construct a new token painting manager.
 	 */
 	public TokenPaintingManager() {
-		tokenPainters = new HashMap<Token, TokenPainter>();
-		tokenOrderComparator = new Comparator<TokenPainter>() {
-			@Override
-			public int compare(TokenPainter o1, TokenPainter o2) {
-				return o2.getDiameter() - o1.getDiameter();
-			}
-		};
+		tokens = new HashMap<Token, PlacedToken>();
+		layers = new ArrayList<List<PlacedToken>>(LAYERS.length);
+		visible = new boolean[LAYERS.length];
+		for (int i = 0; i < LAYERS.length; i++) {
+			layers.add(new ArrayList<PlacedToken>());
+			visible[i] = true;
+		}
+	}
+	
+	/**
+	 * Get the layer a token is drawn in.
+	 * 
+	 * @param t the token
+	 * @return the layer
+	 */
+	public static Layer getLayer(Token t) {
+		if (t instanceof WallToken) {
+			return Layer.WALLS;
+		} else if (t instanceof ThreatToken) {
+			return Layer.THREATS;
+		} else if (t instanceof POIToken) {
+			return Layer.POIS;
+		} else if (t instanceof PlayerToken) {
+			return Layer.PLAYERS;
+		}
+		return Layer.OVERLAYS;
 	}
 	
 	/**
@@ -64,18 +104,34 @@ public class TokenPaintingManager {
 	 * @param y the y location of the token
 	 */
 	public void addToken(Token t, int x, int y) {
-		TokenPainter tp = t.getPainter();
-		tokenPainters.put(t, tp);
-		tp.updateLocation(x, y);
+		removeToken(t);
+		TokenPainter tp = TokenPainterFactory.getPainter(t);
+		List<PlacedToken> layer = layers.get(getLayer(t).ordinal());
+		PlacedToken pt = new PlacedToken(tp, layer, x, y);
+		pt.index = layer.size();
+		layer.add(pt);
+		tokens.put(t, pt);
 	}
 	
 	/**
 	 * Remove a token from painting
 	 * 
 	 * @param t the token to be removed
+	 * @return the location the token was drawn at, or null if it was not 
+	 * 			being painted
 	 */
-	public void removeToken(Token t) {
-		tokenPainters.remove(t);
+	public Point removeToken(Token t) {
+		PlacedToken pt = tokens.remove(t);
+		if (pt == null) {
+			return null;
+		}
+		List<PlacedToken> layer = pt.layer;
+		PlacedToken last = layer.remove(layer.size() - 1);
+		if (last != pt) {
+			last.index = pt.index;
+			layer.set(pt.index, last);
+		}
+		return new Point(pt.x, pt.y);
 	}
 	
 	/**
@@ -86,20 +142,81 @@ public class TokenPaintingManager {
 	 * @param y the new y location
 	 */
 	public void updateTokenLocation(MovableToken t, int x, int y) {
-		tokenPainters.get(t).updateLocation(x, y);
+		PlacedToken pt = tokens.get(t);
+		pt.x = x;
+		pt.y = y;
 	}
 	
 	/**
-	 * Draw all the tokens currently managed by this manager
+	 * Get the location a token is drawn at
+	 * 
+	 * @param t the token
+	 * @return the location, or null if the token is not being painted
+	 */
+	public Point getTokenLocation(Token t) {
+		PlacedToken pt = tokens.get(t);
+		return pt == null ? null : new Point(pt.x, pt.y);
+	}
+	
+	/**
+	 * Show or hide a layer.
+	 * 
+	 * @param layer the layer
+	 * @param show true if the tokens in the layer should be drawn
+	 */
+	public void setLayerVisible(Layer layer, boolean show) {
+		visible[layer.ordinal()] = show;
+	}
+	
+	/**
+	 * @param layer a layer
+	 * @return true if the tokens in the layer are drawn
+	 */
+	public boolean isLayerVisible(Layer layer) {
+		return visible[layer.ordinal()];
+	}
+	
+	/**
+	 * Draw all the tokens currently managed by this manager which could show
+	 * within the clip of the graphics, from the bottom layer up.
 	 * 
 	 * @param g the graphics to draw on
 	 */
 	public void drawAll(Graphics2D g) {
-		List<TokenPainter> painters = 
-				new ArrayList<TokenPainter>(tokenPainters.values());
-		Collections.sort(painters, tokenOrderComparator);
-		for (TokenPainter drawer : painters) {
-			drawer.draw(g);			
+		clip.setBounds(Integer.MIN_VALUE / 2, Integer.MIN_VALUE / 2, 
+					   Integer.MAX_VALUE, Integer.MAX_VALUE);
+		g.getClipBounds(clip);
+		for (int l = 0; l < LAYERS.length; l++) {
+			if (!visible[l]) {
+				continue;
+			}
+			List<PlacedToken> layer = layers.get(l);
+			for (int i = 0; i < layer.size(); i++) {
+				PlacedToken pt = layer.get(i);
+				if (TokenPainter.intersects(pt.x, pt.y, clip)) {
+					pt.painter.draw(g, pt.x, pt.y);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * A token being painted: its painter, which may be shared with other 
+	 * tokens, where it is drawn, and its place in its layer.
+	 */
+	private static class PlacedToken {
+		private final TokenPainter painter;
+		private final List<PlacedToken> layer;
+		private int index;
+		private int x;
+		private int y;
+		
+		PlacedToken(TokenPainter painter, List<PlacedToken> layer, 
+					int x, int y) {
+			this.painter = painter;
+			this.layer = layer;
+			this.x = x;
+			this.y = y;
 		}
 	}
 }
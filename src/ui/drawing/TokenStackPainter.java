@@ -20,9 +20,14 @@
  */
 package ui.drawing;
 
+import game.token.TokenStackToken;
+
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
 
 /**
  *
@@ -30,34 +35,28 @@ import java.awt.Graphics2D;
  */
 public class TokenStackPainter extends TokenPainter {
 	
-	private TokenPainter painter;
+	/** the font for the number of tokens in the stack */
+	private static final Font COUNT_FONT = new Font(Font.SANS_SERIF, Font.BOLD, 10);
 	
-	/** the number of tokens in the stack */
-	private int count;
+	/** the painter for a single token in the stack */
+	private final TokenPainter painter;
 	
-	public TokenStackPainter(TokenPainter painter) {
-		this.painter = painter;
-		count = 0;
-	}
+	/** the stack of tokens being painted */
+	private final TokenStackToken stack;
+	
+	/** the number of tokens last drawn, and a sprite of that number */
+	private int lastCount = -1;
+	private BufferedImage countSprite;
 	
 	/**
-	 * Update the location of this token
+	 * Make a new token stack painter
 	 * 
-	 * @param x the x coordinate
-	 * @param y the y coordinate
+	 * @param stack the stack to be painted
+	 * @param painter the painter for a single token in the stack
 	 */
-	@Override
-	public void updateLocation(int x, int y) {
-		super.updateLocation(x, y);
-		painter.updateLocation(x, y);
-	}
-	
-	public void setCount(int val) {
-		this.count = val;
-	}
-
-	public void setPainter(TokenPainter tp) {
-		painter = tp;
+	public TokenStackPainter(TokenStackToken stack, TokenPainter painter) {
+		this.stack = stack;
+		this.painter = painter;
 	}
 	
 	public TokenPainter getPainter() {
@@ -68,13 +67,35 @@ public class TokenStackPainter extends TokenPainter {
 	 * @see ui.drawing.TokenPainter#draw(java.awt.Graphics2D)
 	 */
 	@Override
-	public void draw(Graphics2D g) {
+	public void draw(Graphics2D g, int x, int y) {
+		int count = stack.getCount();
 		if (painter != null && count > 0) {
-			painter.draw(g);
+			painter.draw(g, x, y);
 		}
+		if (count != lastCount) {
+			countSprite = drawCount(g.getDeviceConfiguration(), count);
+			lastCount = count;
+		}
+		g.drawImage(countSprite, x - MAX_EXTENT, y - MAX_EXTENT, null);
+	}
+	
+	/**
+	 * Draw the number of tokens in the stack into a new sprite, so that it is
+	 * only laid out and drawn when it changes.
+	 * 
+	 * @param gc the configuration the sprite will be drawn onto
+	 * @param count the number of tokens
+	 * @return the sprite
+	 */
+	private BufferedImage drawCount(GraphicsConfiguration gc, int count) {
+		BufferedImage image = gc.createCompatibleImage(
+				MAX_EXTENT * 2, MAX_EXTENT * 2, Transparency.TRANSLUCENT);
+		Graphics2D g = image.createGraphics();
 		g.setColor(Color.RED);
-		g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 10));
-		g.drawString("" + count, x + CELL_SIZE / 4, y + CELL_SIZE / 4);
+		g.drawGlyphVector(layOut(g, COUNT_FONT, "" + count), 
+						  MAX_EXTENT + CELL_SIZE / 4, MAX_EXTENT + CELL_SIZE / 4);
+		g.dispose();
+		return image;
 	}
 
 	/* (non-Javadoc)
@@ -21,11 +21,11 @@
 package ui.drawing;
 
 import game.Walls.Direction;
+import game.token.WallToken;
 
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.util.Set;
 
 /**
  * Painter for painting the walls in a square.
@@ -39,37 +39,44 @@ public class WallTokenPainter extends TokenPainter {
 	@SuppressWarnings("unused")
 	private static final int THICKNESS = 5;
 	
-	private int north;
-	private int east;
-	private int south;
-	private int west;
+	/** the distance from the centre of the square to its walls */
+	private static final int OFFSET = CELL_SIZE / 2 - 3;
 	
-	private final Set<Direction> directions;
+	/** the stroke the walls are drawn with */
+	private static final BasicStroke WALL_STROKE = new BasicStroke(5);
 	
+	/** all the directions a wall can be in */
+	private static final Direction[] DIRECTIONS = Direction.values();
 	
+	/** the walls painted, with the bit {@link Direction#getBit()} set for 
+	 *  each direction with a wall */
+	private final int mask;
 	
 	/**
 	 * Construct a new WallTokenPainter
 	 * 
-	 * @param directions the directions in which walls should be painted
+	 * @param mask the walls to be painted, as given by 
+	 * 			{@link WallToken#getWallMask()}
 	 */
-	public WallTokenPainter(Set<Direction> directions) {
-		this.directions = directions;
-		int offset = CELL_SIZE / 2 - 3;
-		north = -offset;
-		east = offset;
-		south = offset;
-		west = -offset;
+	public WallTokenPainter(int mask) {
+		this.mask = mask;
 	}
 
 	/* (non-Javadoc)
 	 * @see ui.drawing.TokenPainter#draw(java.awt.Graphics2D)
 	 */
 	@Override
-	public void draw(Graphics2D g) {
+	public void draw(Graphics2D g, int x, int y) {
+		int north = y - OFFSET;
+		int east = x + OFFSET;
+		int south = y + OFFSET;
+		int west = x - OFFSET;
 		g.setColor(Color.WHITE);
-		g.setStroke(new BasicStroke(5));
-		for (Direction dir : directions) {
+		g.setStroke(WALL_STROKE);
+		for (Direction dir : DIRECTIONS) {
+			if ((mask & dir.getBit()) == 0) {
+				continue;
+			}
 			switch (dir) {
 				case NORTH:
 					g.drawLine(east, north, west, north);
@@ -96,14 +103,4 @@ public class WallTokenPainter extends TokenPainter {
 	protected int getDiameter() {
 		return WIDTH_PERCENTAGE;
 	}
-	
-	@Override
-	public void updateLocation(int x, int y) {
-		super.updateLocation(x, y);
-		north += y;
-		south += y;
-		west += x;
-		east += x;
-		
-	}
 }
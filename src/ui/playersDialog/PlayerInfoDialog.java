@@ -20,6 +20,8 @@
  */
 package ui.playersDialog;
 
+import game.PlayerInputData;
+
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.ComponentOrientation;